@@ -44,6 +44,21 @@ public class DataInitializer implements CommandLineRunner {
         } catch (Exception e) {
             System.out.println("Constraint cleanup skipped or not needed: " + e.getMessage());
         }
+
+        // ddl-auto=update never widens an existing enum check constraint, so drop it to allow newer statuses such as NO_SHOW
+        try {
+            jdbcTemplate.execute("ALTER TABLE appointment DROP CONSTRAINT IF EXISTS appointment_status_check");
+        } catch (Exception e) {
+            System.out.println("Appointment status constraint cleanup skipped: " + e.getMessage());
+        }
+
+        // Appointment ids moved from an identity column to appointment_seq; start the sequence past the existing rows
+        try {
+            jdbcTemplate.execute("SELECT setval('appointment_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM appointment) + 50, " +
+                    "(SELECT last_value FROM appointment_seq)))");
+        } catch (Exception e) {
+            System.out.println("Appointment sequence alignment skipped: " + e.getMessage());
+        }
     
         if (!userRepository.existsByEmail("admin@clinova.com")) {
             User admin = createUser("Admin", "User", "admin@clinova.com", "password123", "Banjul, Gambia", LocalDate.of(1985, 5, 20), Role.ADMIN);
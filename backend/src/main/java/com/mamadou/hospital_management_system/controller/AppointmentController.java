@@ -1,14 +1,24 @@
 package com.mamadou.hospital_management_system.controller;
 
 import com.mamadou.hospital_management_system.dto.AppointmentResponse;
+import com.mamadou.hospital_management_system.dto.BatchBookingResponse;
 import com.mamadou.hospital_management_system.dto.BookAppointmentRequest;
+import com.mamadou.hospital_management_system.dto.BulkStatusRequest;
+import com.mamadou.hospital_management_system.dto.BulkStatusResponse;
 import com.mamadou.hospital_management_system.dto.MessageResponse;
 import com.mamadou.hospital_management_system.enums.BookingStatus;
 import com.mamadou.hospital_management_system.service.AppointmentService;
+import com.mamadou.hospital_management_system.service.AppointmentStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,10 +27,30 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final AppointmentStreamService appointmentStreamService;
 
     @GetMapping
-    public ResponseEntity<List<AppointmentResponse>> getAllAppointments() {
-        return ResponseEntity.ok(appointmentService.getAllAppointments());
+    public ResponseEntity<List<AppointmentResponse>> getAllAppointments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "" + AppointmentService.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(appointmentService.getAllAppointments(after, afterId, size));
+    }
+
+    // Server-sent events for bookings and status changes, optionally for one doctor or department
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'RECEPTIONIST')")
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) Integer doctorId,
+                                             @RequestParam(required = false) String department) {
+        SseEmitter emitter;
+        try {
+            emitter = appointmentStreamService.subscribe(doctorId, department);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return emitter != null
+                ? ResponseEntity.ok(emitter)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
     }
 
     @GetMapping("/{id}")
@@ -41,6 +71,26 @@ public class AppointmentController {
         }
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPTIONIST')")
+    public ResponseEntity<BatchBookingResponse> bookAppointments(@RequestBody List<BookAppointmentRequest> requests) {
+        try {
+            return ResponseEntity.ok(appointmentService.bookAppointments(requests));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PatchMapping("/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPTIONIST')")
+    public ResponseEntity<BulkStatusResponse> bulkUpdateStatus(@RequestBody BulkStatusRequest request) {
+        try {
+            return ResponseEntity.ok(appointmentService.bulkUpdateStatus(request));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<MessageResponse> updateStatus(@PathVariable Long id, @RequestParam BookingStatus status) {
         try {
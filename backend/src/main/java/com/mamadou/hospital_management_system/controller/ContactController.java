@@ -3,6 +3,7 @@ package com.mamadou.hospital_management_system.controller;
 import com.mamadou.hospital_management_system.dto.ContactRequest;
 import com.mamadou.hospital_management_system.dto.MessageResponse;
 import com.mamadou.hospital_management_system.model.Contact;
+import com.mamadou.hospital_management_system.service.ContactSearchIndex;
 import com.mamadou.hospital_management_system.service.ContactService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -50,7 +51,10 @@ public class ContactController {
 
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'RECEPTIONIST')")
-    public ResponseEntity<List<Contact>> searchContacts(@RequestParam String query) {
-        return ResponseEntity.ok(contactService.searchContacts(query));
+    public ResponseEntity<List<Contact>> searchContacts(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(defaultValue = "" + ContactSearchIndex.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(contactService.searchContacts(query, prefix, limit));
     }
 }
@@ -1,9 +1,12 @@
 package com.mamadou.hospital_management_system.controller;
 
+import com.mamadou.hospital_management_system.dto.CacheStatsResponse;
 import com.mamadou.hospital_management_system.dto.DashboardResponse;
+import com.mamadou.hospital_management_system.service.CacheStatsService;
 import com.mamadou.hospital_management_system.service.DashboardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -14,9 +17,16 @@ import org.springframework.web.bind.annotation.RestController;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final CacheStatsService cacheStatsService;
 
     @GetMapping("/stats")
     public ResponseEntity<DashboardResponse> getStats() {
         return ResponseEntity.ok(dashboardService.getDashboardData());
     }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/cache-stats")
+    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStats());
+    }
 }
@@ -30,18 +30,22 @@ public class DoctorController {
     }
 
     @GetMapping
-    public ResponseEntity<List<DoctorDetailResponse>> getAllDoctors() {
+    public ResponseEntity<List<DoctorDetailResponse>> getAllDoctors(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) Boolean available) {
         try{
-            return ResponseEntity.ok().body(doctorService.findAllDoctors());
+            return ResponseEntity.ok().body(doctorService.findAllDoctors(department, available));
         }catch (RuntimeException e){
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<DoctorDetailResponse> getDoctorById(@PathVariable int id) {
+    public ResponseEntity<DoctorDetailResponse> getDoctorById(
+            @PathVariable int id,
+            @RequestParam(defaultValue = "" + DoctorService.DEFAULT_RECENT_APPOINTMENTS) int recent) {
         try{
-            return ResponseEntity.ok(doctorService.getDoctorById(id));
+            return ResponseEntity.ok(doctorService.getDoctorById(id, recent));
         }catch (RuntimeException e){
             return ResponseEntity.badRequest().build();
         }
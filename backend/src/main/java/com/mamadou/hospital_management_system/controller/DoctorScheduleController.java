@@ -1,11 +1,19 @@
 package com.mamadou.hospital_management_system.controller;
 
+import com.mamadou.hospital_management_system.dto.AvailableDoctorResponse;
+import com.mamadou.hospital_management_system.dto.BulkScheduleResponse;
+import com.mamadou.hospital_management_system.dto.DaySlotsResponse;
 import com.mamadou.hospital_management_system.dto.DoctorScheduleDTO;
+import com.mamadou.hospital_management_system.service.AvailabilityService;
 import com.mamadou.hospital_management_system.service.DoctorScheduleService;
+import com.mamadou.hospital_management_system.service.SlotMaterializer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -13,6 +21,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DoctorScheduleController {
     private final DoctorScheduleService doctorScheduleService;
+    private final AvailabilityService availabilityService;
+    private final SlotMaterializer slotMaterializer;
 
     @PostMapping
     public ResponseEntity<DoctorScheduleDTO> addSchedule( @RequestBody  DoctorScheduleDTO doctorScheduleDTO) {
@@ -22,6 +32,13 @@ public class DoctorScheduleController {
             return ResponseEntity.badRequest().build();
         }
     }
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkScheduleResponse> addSchedules(@RequestBody List<DoctorScheduleDTO> schedules) {
+        BulkScheduleResponse response = doctorScheduleService.addSchedules(schedules);
+        return response.errors().isEmpty()
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.badRequest().body(response);
+    }
     @GetMapping
     public ResponseEntity<List<DoctorScheduleDTO>> getAllSchedules( @PathVariable int doctorId) {
         try{
@@ -30,4 +47,28 @@ public class DoctorScheduleController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    // e.g. /availability?department=Cardiology&date=2026-10-20&from=10:00&to=12:00
+    @GetMapping("/availability")
+    public ResponseEntity<List<AvailableDoctorResponse>> findAvailableDoctors(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String specialty,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime to) {
+        try {
+            return ResponseEntity.ok(availabilityService.findAvailableDoctors(department, specialty, date, from, to));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{doctorId}/slots")
+    public ResponseEntity<List<DaySlotsResponse>> getFreeSlots(
+            @PathVariable int doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "7") int days) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        return ResponseEntity.ok(slotMaterializer.getFreeSlots(doctorId, start, Math.max(1, Math.min(days, 62))));
+    }
 }
@@ -0,0 +1,56 @@
+package com.mamadou.hospital_management_system.controller;
+
+import com.mamadou.hospital_management_system.enums.ExportFormat;
+import com.mamadou.hospital_management_system.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.function.Function;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping("/patients")
+    public ResponseEntity<StreamingResponseBody> exportPatients(@RequestParam(defaultValue = "csv") String format) {
+        return export("patients", format, exportService::exportPatients);
+    }
+
+    @GetMapping("/appointments")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(@RequestParam(defaultValue = "csv") String format) {
+        return export("appointments", format, exportService::exportAppointments);
+    }
+
+    @GetMapping("/records")
+    public ResponseEntity<StreamingResponseBody> exportRecords(@RequestParam(defaultValue = "csv") String format) {
+        return export("records", format, exportService::exportRecords);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, String format,
+                                                         Function<ExportFormat, StreamingResponseBody> body) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + exportFormat.getExtension()).build().toString())
+                .body(body.apply(exportFormat));
+    }
+}
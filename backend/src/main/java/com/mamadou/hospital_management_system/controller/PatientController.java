@@ -3,9 +3,12 @@ package com.mamadou.hospital_management_system.controller;
 import com.mamadou.hospital_management_system.dto.AddPatientRequest;
 import com.mamadou.hospital_management_system.dto.MessageResponse;
 import com.mamadou.hospital_management_system.dto.PatientDetailResponse;
+import com.mamadou.hospital_management_system.dto.PatientSearchResponse;
 import com.mamadou.hospital_management_system.dto.PatientStatsResponse;
 import com.mamadou.hospital_management_system.service.PatientService;
+import com.mamadou.hospital_management_system.service.PatientSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +21,7 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final PatientSearchService patientSearchService;
 
     @GetMapping("/stats")
     @PreAuthorize("hasAnyRole('ADMIN', 'RECEPTIONIST')")
@@ -25,6 +29,17 @@ public class PatientController {
         return ResponseEntity.ok(patientService.getPatientStats());
     }
 
+    // Ranked name, email, phone and address search; fuzzy also tolerates typos
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPTIONIST', 'DOCTOR')")
+    public ResponseEntity<PatientSearchResponse> searchPatients(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "true") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + PatientSearchService.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(patientSearchService.search(query, fuzzy, page, size));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'RECEPTIONIST')")
     public ResponseEntity<MessageResponse> addPatient(@RequestBody AddPatientRequest request) {
@@ -46,14 +61,27 @@ public class PatientController {
     }
 
     @GetMapping
-    public ResponseEntity<List<PatientDetailResponse>> getAllPatients() {
-        return ResponseEntity.ok(patientService.getAllPatients());
+    public ResponseEntity<List<PatientDetailResponse>> getAllPatients(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + PatientService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String bloodGroup,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge) {
+        return ResponseEntity.ok(patientService.getAllPatients(page, size, sort, direction, afterId, status, bloodGroup, minAge, maxAge));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDetailResponse> getPatientById(@PathVariable long id) {
+    public ResponseEntity<PatientDetailResponse> getPatientById(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "0") int appointmentsPage,
+            @RequestParam(defaultValue = "0") int recordsPage,
+            @RequestParam(defaultValue = "" + PatientService.DEFAULT_DETAIL_PAGE_SIZE) int size) {
         try{
-            return ResponseEntity.ok().body(patientService.getPatientById(id));
+            return ResponseEntity.ok().body(patientService.getPatientById(id, appointmentsPage, recordsPage, size));
         }catch(RuntimeException e){
             return ResponseEntity.badRequest().build();
         }
@@ -0,0 +1,17 @@
+package com.mamadou.hospital_management_system.dto;
+
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Pushed to SSE subscribers; type is CREATED or STATUS_CHANGED
+public record AppointmentStreamEvent(
+    String type,
+    Long appointmentId,
+    int doctorId,
+    String departmentName,
+    Long patientId,
+    LocalDateTime appointmentDate,
+    BookingStatus previousStatus,
+    BookingStatus status
+) {}
@@ -0,0 +1,12 @@
+package com.mamadou.hospital_management_system.dto;
+
+import java.time.LocalTime;
+import java.util.List;
+
+public record AvailableDoctorResponse(
+    int doctorId,
+    String doctorName,
+    String departmentName,
+    String specialty,
+    List<LocalTime> freeSlots
+) {}
@@ -0,0 +1,12 @@
+package com.mamadou.hospital_management_system.dto;
+
+import java.util.List;
+
+public record BatchBookingResponse(
+    int booked,
+    int failed,
+    List<ItemResult> results
+) {
+    // appointmentId is null when the item failed, error is null when it was booked
+    public record ItemResult(int index, Long appointmentId, String error) {}
+}
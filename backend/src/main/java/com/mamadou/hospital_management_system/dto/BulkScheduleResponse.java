@@ -0,0 +1,9 @@
+package com.mamadou.hospital_management_system.dto;
+
+import java.util.List;
+
+// Either every schedule was saved (errors empty) or none was
+public record BulkScheduleResponse(
+    List<DoctorScheduleDTO> schedules,
+    List<String> errors
+) {}
@@ -0,0 +1,17 @@
+package com.mamadou.hospital_management_system.dto;
+
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Moves every matching appointment that is allowed to reach the target status.
+// e.g. {status: NO_SHOW, currentStatus: BOOKED, to: <now>} or {status: CANCELLED, doctorId: 4, from: <now>}
+public record BulkStatusRequest(
+        BookingStatus status,
+        List<Long> appointmentIds,
+        Integer doctorId,
+        BookingStatus currentStatus,
+        LocalDateTime from,
+        LocalDateTime to
+) {}
@@ -0,0 +1,11 @@
+package com.mamadou.hospital_management_system.dto;
+
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+
+import java.util.Map;
+
+public record BulkStatusResponse(
+    BookingStatus status,
+    int updated,
+    Map<BookingStatus, Long> updatedFrom
+) {}
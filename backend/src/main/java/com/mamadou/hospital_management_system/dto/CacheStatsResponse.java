@@ -0,0 +1,10 @@
+package com.mamadou.hospital_management_system.dto;
+
+import java.util.List;
+
+public record CacheStatsResponse(
+    List<Region> regions,
+    Region queryCache
+) {
+    public record Region(String name, long hits, long misses, long puts, double hitRatio) {}
+}
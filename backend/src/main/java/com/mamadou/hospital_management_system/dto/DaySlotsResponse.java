@@ -0,0 +1,10 @@
+package com.mamadou.hospital_management_system.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public record DaySlotsResponse(
+    LocalDate date,
+    List<LocalTime> freeSlots
+) {}
@@ -0,0 +1,21 @@
+package com.mamadou.hospital_management_system.dto;
+
+import java.util.List;
+
+public record PatientSearchResponse(
+    int page,
+    int size,
+    long total,
+    List<Result> results
+) {
+    public record Result(
+        long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        String address,
+        String status,
+        double score
+    ) {}
+}
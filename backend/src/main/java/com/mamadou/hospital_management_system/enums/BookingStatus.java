@@ -1,9 +1,40 @@
 package com.mamadou.hospital_management_system.enums;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum BookingStatus {
     PENDING,
     CONFIRMED,
     BOOKED,
     CANCELLED,
     COMPLETED,
+    NO_SHOW,
+    ;
+
+    private static final Map<BookingStatus, Set<BookingStatus>> TRANSITIONS = new EnumMap<>(BookingStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, BOOKED, CANCELLED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(BOOKED, CANCELLED, COMPLETED, NO_SHOW));
+        TRANSITIONS.put(BOOKED, EnumSet.of(CONFIRMED, CANCELLED, COMPLETED, NO_SHOW));
+        TRANSITIONS.put(CANCELLED, EnumSet.of(PENDING, BOOKED));
+        TRANSITIONS.put(NO_SHOW, EnumSet.of(COMPLETED)); // patient turned up late, corrected by hand
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(BookingStatus.class));
+    }
+
+    public boolean canTransitionTo(BookingStatus next) {
+        return this == next || TRANSITIONS.get(this).contains(next);
+    }
+
+    // Every status that may move to the given one
+    public static Set<BookingStatus> sourcesOf(BookingStatus target) {
+        Set<BookingStatus> sources = EnumSet.noneOf(BookingStatus.class);
+        TRANSITIONS.forEach((from, to) -> {
+            if (to.contains(target)) sources.add(from);
+        });
+        return sources;
+    }
 }
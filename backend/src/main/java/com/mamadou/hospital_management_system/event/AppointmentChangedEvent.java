@@ -0,0 +1,15 @@
+package com.mamadou.hospital_management_system.event;
+
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Published by AppointmentService; previousStatus is null when the appointment was just booked
+public record AppointmentChangedEvent(
+        Long appointmentId,
+        int doctorId,
+        Long patientId,
+        LocalDateTime appointmentDate,
+        BookingStatus previousStatus,
+        BookingStatus status
+) {}
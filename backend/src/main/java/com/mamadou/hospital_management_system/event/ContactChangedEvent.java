@@ -0,0 +1,4 @@
+package com.mamadou.hospital_management_system.event;
+
+// A phone directory entry was added, edited or removed
+public record ContactChangedEvent(Long contactId) {}
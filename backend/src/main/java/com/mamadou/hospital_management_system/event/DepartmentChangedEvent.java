@@ -0,0 +1,4 @@
+package com.mamadou.hospital_management_system.event;
+
+// A department was added; edits and removals publish DoctorChangedEvent since doctors' views change too
+public record DepartmentChangedEvent(short departmentId) {}
@@ -0,0 +1,4 @@
+package com.mamadou.hospital_management_system.event;
+
+// A doctor, their schedules or their department changed; a null doctorId means "any doctor"
+public record DoctorChangedEvent(Integer doctorId) {}
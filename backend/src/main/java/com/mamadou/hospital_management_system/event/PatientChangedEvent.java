@@ -0,0 +1,7 @@
+package com.mamadou.hospital_management_system.event;
+
+// Published by PatientService; status may legitimately be null, so the kind of change is explicit
+public record PatientChangedEvent(Long patientId, Kind kind, String previousStatus, String status) {
+
+    public enum Kind { CREATED, UPDATED, DELETED }
+}
@@ -9,11 +9,17 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_appointment_date_id", columnList = "appointmentDate, id"),
+        @Index(name = "idx_appointment_doctor_date_id", columnList = "doctor_id, appointmentDate, id")
+})
 @Data
 public class Appointment {
 
+    // Sequence with a pooled optimizer (50 ids per round trip) so Hibernate can batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,23 @@
+package com.mamadou.hospital_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// One row per day; counters are bumped as patients are created and summed into months on read
+@Entity
+@Table(name = "arrival_day", uniqueConstraints = @UniqueConstraint(name = "uk_arrival_day_date", columnNames = "arrival_date"))
+@Data
+public class ArrivalRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "arrival_date", nullable = false)
+    private LocalDate arrivalDate;
+
+    private long inpatients;
+    private long outpatients;
+}
@@ -0,0 +1,36 @@
+package com.mamadou.hospital_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Ranked per-doctor snapshot written by the monthly Doctor of the Month job
+@Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_doctor_monthly_stats", columnNames = {"doctor_id", "stats_month"}),
+        indexes = @Index(name = "idx_doctor_monthly_stats_month_rank", columnList = "stats_month, ranking")
+)
+@Data
+public class DoctorMonthlyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private Doctor doctor;
+
+    // First day of the month the stats cover
+    @Column(name = "stats_month", nullable = false)
+    private LocalDate month;
+
+    private long totalAppointments;
+    private long completedAppointments;
+    private long noShows;
+    private long distinctPatients;
+    private long recordsIssued;
+    private double score;
+    private int ranking;
+}
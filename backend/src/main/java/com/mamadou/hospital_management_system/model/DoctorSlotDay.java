@@ -0,0 +1,37 @@
+package com.mamadou.hospital_management_system.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDate;
+
+// One doctor-day of materialized slots. Each bitmap holds 96 bits, one per 15-minute unit of the day
+// (bit 0 = 00:00-00:15); openUnits comes from the weekly schedule, bookedUnits from appointments.
+// Updates write only the changed bitmap, so a schedule change never rewrites booked bits.
+@Entity
+@DynamicUpdate
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_doctor_slot_day", columnNames = {"doctor_id", "slot_date"}),
+        indexes = @Index(name = "idx_doctor_slot_day_date", columnList = "slot_date")
+)
+@Data
+public class DoctorSlotDay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private Doctor doctor;
+
+    @Column(name = "slot_date", nullable = false)
+    private LocalDate slotDate;
+
+    @Column(nullable = false, length = 12)
+    private byte[] openUnits;
+
+    @Column(nullable = false, length = 12)
+    private byte[] bookedUnits;
+}
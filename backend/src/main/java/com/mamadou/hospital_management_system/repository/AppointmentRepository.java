@@ -1,17 +1,145 @@
 package com.mamadou.hospital_management_system.repository;
 
+import com.mamadou.hospital_management_system.dto.AppointmentResponse;
 import com.mamadou.hospital_management_system.enums.BookingStatus;
 import com.mamadou.hospital_management_system.model.Appointment;
-import com.mamadou.hospital_management_system.model.Department;
+import com.mamadou.hospital_management_system.model.DoctorSchedule;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment,Long> {
-    long countByStatus(BookingStatus status);
 
-    @Query("SELECT COUNT(DISTINCT a.patient) FROM Appointment a WHERE a.doctor.department = :department")
-    long countDistinctPatientByDoctorDepartment(@Param("department") Department department);
+    // Projection straight into AppointmentResponse so listing never hydrates patient/doctor/user entities
+    String RESPONSE_SELECT = "SELECT new com.mamadou.hospital_management_system.dto.AppointmentResponse(" +
+            "a.id, p.id, CONCAT(pu.firstName, ' ', pu.lastName), d.id, CONCAT(du.firstName, ' ', du.lastName), " +
+            "d.specialty, a.appointmentDate, a.visitType, a.status, a.reason) " +
+            "FROM Appointment a JOIN a.patient p JOIN p.user pu JOIN a.doctor d JOIN d.user du ";
+
+    // Single status changes lock the row, so two requests cannot both move it and both release capacity
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Appointment a WHERE a.id = :id")
+    Optional<Appointment> findByIdForUpdate(@Param("id") Long id);
+
+    // [status, count]
+    @Query("SELECT a.status, COUNT(a) FROM Appointment a GROUP BY a.status")
+    List<Object[]> countGroupedByStatus();
+
+    // [id, doctor first name, doctor last name, specialty, appointmentDate, status], newest first
+    @Query("SELECT a.id, du.firstName, du.lastName, d.specialty, a.appointmentDate, a.status " +
+            "FROM Appointment a JOIN a.doctor d JOIN d.user du " +
+            "WHERE a.patient.id = :patientId ORDER BY a.appointmentDate DESC, a.id DESC")
+    List<Object[]> findSummariesByPatientId(@Param("patientId") long patientId, Pageable pageable);
+
+    // [id, patient first name, patient last name, appointmentDate, status, reason], newest first
+    @Query("SELECT a.id, pu.firstName, pu.lastName, a.appointmentDate, a.status, a.reason " +
+            "FROM Appointment a JOIN a.patient p JOIN p.user pu " +
+            "WHERE a.doctor.id = :doctorId ORDER BY a.appointmentDate DESC, a.id DESC")
+    List<Object[]> findRecentByDoctorId(@Param("doctorId") int doctorId, Limit limit);
+
+    // [doctorId, total, completed, no-shows, distinct patients] for appointments in [from, to)
+    @Query("SELECT a.doctor.id, COUNT(a), " +
+            "SUM(CASE WHEN a.status = com.mamadou.hospital_management_system.enums.BookingStatus.COMPLETED THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.status = com.mamadou.hospital_management_system.enums.BookingStatus.NO_SHOW THEN 1 ELSE 0 END), " +
+            "COUNT(DISTINCT a.patient.id) " +
+            "FROM Appointment a " +
+            "WHERE a.appointmentDate >= :from AND a.appointmentDate < :to " +
+            "AND a.status <> com.mamadou.hospital_management_system.enums.BookingStatus.CANCELLED " +
+            "GROUP BY a.doctor.id")
+    List<Object[]> summarizeByDoctor(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Columns: [doctorId, appointmentDate, id]
+    @Query("SELECT a.doctor.id, a.appointmentDate, a.id FROM Appointment a " +
+            "WHERE a.appointmentDate >= :from " +
+            "AND a.status <> com.mamadou.hospital_management_system.enums.BookingStatus.CANCELLED")
+    List<Object[]> findBookedTimesFrom(@Param("from") LocalDateTime from);
+
+    @Query("SELECT a.appointmentDate FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.appointmentDate >= :from AND a.appointmentDate < :to " +
+            "AND a.status <> com.mamadou.hospital_management_system.enums.BookingStatus.CANCELLED")
+    List<LocalDateTime> findBookedTimesByDoctorBetween(@Param("doctorId") int doctorId,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to);
+
+    String TRANSITION_SELECT = "SELECT a.id, a.doctor.id, a.patient.id, a.doctorSchedule.id, a.appointmentDate, a.status " +
+            "FROM Appointment a " +
+            "WHERE a.status IN :sources " +
+            "AND (CAST(:doctorId AS Integer) IS NULL OR a.doctor.id = :doctorId) " +
+            "AND (CAST(:from AS LocalDateTime) IS NULL OR a.appointmentDate >= :from) " +
+            "AND (CAST(:to AS LocalDateTime) IS NULL OR a.appointmentDate < :to) ";
+
+    // Columns: [id, doctorId, patientId, scheduleId (nullable), appointmentDate, status]
+    // Locked in id order; a row whose status moved on while waiting for the lock is no longer returned
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(TRANSITION_SELECT + "ORDER BY a.id")
+    List<Object[]> findTransitionCandidates(@Param("sources") Collection<BookingStatus> sources,
+                                            @Param("doctorId") Integer doctorId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(TRANSITION_SELECT + "AND a.id IN :ids ORDER BY a.id")
+    List<Object[]> findTransitionCandidatesByIds(@Param("ids") Collection<Long> ids,
+                                                 @Param("sources") Collection<BookingStatus> sources,
+                                                 @Param("doctorId") Integer doctorId,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    // The status guard keeps a row that changed since it was selected from being moved again
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :status WHERE a.id IN :ids AND a.status IN :sources")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids,
+                          @Param("sources") Collection<BookingStatus> sources,
+                          @Param("status") BookingStatus status);
+
+    // Used when a schedule is merged into its neighbour and removed
+    @Modifying
+    @Query("UPDATE Appointment a SET a.doctorSchedule = :to WHERE a.doctorSchedule = :from")
+    int moveToSchedule(@Param("from") DoctorSchedule from, @Param("to") DoctorSchedule to);
+
+    @Query(RESPONSE_SELECT + "ORDER BY a.appointmentDate, a.id")
+    List<AppointmentResponse> findFirstPage(Limit limit);
+
+    @Query(RESPONSE_SELECT +
+            "WHERE a.appointmentDate > :afterDate OR (a.appointmentDate = :afterDate AND a.id > :afterId) " +
+            "ORDER BY a.appointmentDate, a.id")
+    List<AppointmentResponse> findPageAfter(@Param("afterDate") LocalDateTime afterDate,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+
+    @Query(RESPONSE_SELECT + "WHERE du.email = :email ORDER BY a.appointmentDate, a.id")
+    List<AppointmentResponse> findFirstPageByDoctorEmail(@Param("email") String email, Limit limit);
+
+    @Query(RESPONSE_SELECT +
+            "WHERE du.email = :email " +
+            "AND (a.appointmentDate > :afterDate OR (a.appointmentDate = :afterDate AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentDate, a.id")
+    List<AppointmentResponse> findPageByDoctorEmailAfter(@Param("email") String email,
+                                                         @Param("afterDate") LocalDateTime afterDate,
+                                                         @Param("afterId") Long afterId,
+                                                         Limit limit);
+
+    // [id, patientId, patientFirstName, patientLastName, doctorId, doctorFirstName, doctorLastName,
+    // appointmentDate, visitType, status, reason]; a forward-only cursor for exports
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.id, p.id, pu.firstName, pu.lastName, d.id, du.firstName, du.lastName, " +
+            "a.appointmentDate, a.visitType, a.status, a.reason FROM Appointment a " +
+            "LEFT JOIN a.patient p LEFT JOIN p.user pu LEFT JOIN a.doctor d LEFT JOIN d.user du ORDER BY a.id")
+    Stream<Object[]> streamExportRows();
 }
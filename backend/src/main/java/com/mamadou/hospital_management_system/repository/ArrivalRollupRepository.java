@@ -0,0 +1,46 @@
+package com.mamadou.hospital_management_system.repository;
+
+import com.mamadou.hospital_management_system.model.ArrivalRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ArrivalRollupRepository extends JpaRepository<ArrivalRollup, Long> {
+
+    List<ArrivalRollup> findByArrivalDateBetweenOrderByArrivalDate(LocalDate from, LocalDate to);
+
+    // Atomic increment-or-create, so concurrent arrivals never lose an update. The query space keeps
+    // Hibernate from evicting every second-level cache region on each native write.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "arrival_day"))
+    @Query(value = "INSERT INTO arrival_day (arrival_date, inpatients, outpatients) " +
+            "VALUES (:arrivalDate, :inpatients, :outpatients) " +
+            "ON CONFLICT (arrival_date) DO UPDATE SET " +
+            "inpatients = arrival_day.inpatients + EXCLUDED.inpatients, " +
+            "outpatients = arrival_day.outpatients + EXCLUDED.outpatients",
+            nativeQuery = true)
+    void increment(@Param("arrivalDate") LocalDate arrivalDate,
+                   @Param("inpatients") long inpatients,
+                   @Param("outpatients") long outpatients);
+
+    // One row per patient creation date that has none yet; existing rows are left alone
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "arrival_day"))
+    @Query(value = "INSERT INTO arrival_day (arrival_date, inpatients, outpatients) " +
+            "SELECT CAST(p.created_at AS DATE), " +
+            "SUM(CASE WHEN LOWER(p.status) = 'inpatient' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN LOWER(p.status) = 'outpatient' THEN 1 ELSE 0 END) " +
+            "FROM patient p WHERE p.created_at IS NOT NULL GROUP BY CAST(p.created_at AS DATE) " +
+            "ON CONFLICT (arrival_date) DO NOTHING",
+            nativeQuery = true)
+    void backfillDaysFromPatients();
+}
@@ -1,12 +1,17 @@
 package com.mamadou.hospital_management_system.repository;
 
 import com.mamadou.hospital_management_system.model.Contact;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, Long> {
-    List<Contact> findByNameContainingIgnoreCaseOrRoleContainingIgnoreCase(String name, String role);
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Contact> findAll();
 }
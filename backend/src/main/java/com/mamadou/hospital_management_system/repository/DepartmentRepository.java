@@ -1,13 +1,44 @@
 package com.mamadou.hospital_management_system.repository;
 
 import com.mamadou.hospital_management_system.model.Department;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DepartmentRepository extends JpaRepository<Department,Short> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Department> findByName(String name);
+
+    // [id, name, distinct patients seen by the department's doctors]
+    @Query("SELECT d.id, d.name, COUNT(DISTINCT a.patient.id) FROM Department d " +
+            "LEFT JOIN d.doctors doc LEFT JOIN doc.appointments a " +
+            "GROUP BY d.id, d.name ORDER BY d.id")
+    List<Object[]> countDistinctPatientsPerDepartment();
+
+    // [id, distinct patients] for one department
+    @Query("SELECT d.id, COUNT(DISTINCT a.patient.id) FROM Department d " +
+            "LEFT JOIN d.doctors doc LEFT JOIN doc.appointments a " +
+            "WHERE d.id = :id GROUP BY d.id")
+    List<Object[]> countDistinctPatientsByDepartmentId(@Param("id") short id);
+
+    String WITH_DOCTORS_SELECT = "SELECT d.id, d.name, d.description, d.icon, d.headOfDepartment, " +
+            "doc.id, u.firstName, u.lastName, doc.specialty FROM Department d " +
+            "LEFT JOIN d.doctors doc LEFT JOIN doc.user u ";
+
+    // [id, name, description, icon, head, doctorId, firstName, lastName, specialty]; one row per doctor,
+    // doctor columns null for a department without doctors
+    @Query(WITH_DOCTORS_SELECT + "ORDER BY d.id, doc.id")
+    List<Object[]> findAllWithDoctorSummaries();
+
+    @Query(WITH_DOCTORS_SELECT + "WHERE d.id = :id ORDER BY doc.id")
+    List<Object[]> findWithDoctorSummariesById(@Param("id") short id);
 }
@@ -0,0 +1,27 @@
+package com.mamadou.hospital_management_system.repository;
+
+import com.mamadou.hospital_management_system.model.DoctorMonthlyStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DoctorMonthlyStatsRepository extends JpaRepository<DoctorMonthlyStats, Long> {
+
+    boolean existsByMonth(LocalDate month);
+
+    @Modifying
+    @Query("DELETE FROM DoctorMonthlyStats s WHERE s.month = :month")
+    void deleteByMonth(@Param("month") LocalDate month);
+
+    // Latest winner with doctor and user in the same row
+    @Query("SELECT s FROM DoctorMonthlyStats s JOIN FETCH s.doctor d JOIN FETCH d.user " +
+            "WHERE s.ranking = 1 ORDER BY s.month DESC")
+    List<DoctorMonthlyStats> findLatestWinner(Limit limit);
+}
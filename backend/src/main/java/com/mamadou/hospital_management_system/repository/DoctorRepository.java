@@ -1,15 +1,63 @@
 package com.mamadou.hospital_management_system.repository;
 
+import com.mamadou.hospital_management_system.dto.DoctorDetailResponse;
 import com.mamadou.hospital_management_system.model.Doctor;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor,Integer> {
 
+    @Query("SELECT d.id FROM Doctor d WHERE d.id IN :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
     Optional<Doctor> findByUserEmail(String email);
-    long countByIsAvailable(boolean isAvailable);
+
+    // Schedule writers lock the doctor row first, which serialises them even for a day with no rows yet
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+    Optional<Doctor> findByIdForUpdate(@Param("id") int id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id IN :ids ORDER BY d.id")
+    List<Doctor> findAllByIdForUpdate(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT d FROM Doctor d LEFT JOIN FETCH d.user LEFT JOIN FETCH d.department WHERE d.id = :id")
+    Optional<Doctor> findWithUserAndDepartmentById(@Param("id") int id);
+
+    // Whole directory in one statement, without touching lazy user/department associations
+    @Query("SELECT new com.mamadou.hospital_management_system.dto.DoctorDetailResponse(" +
+            "d.id, u.firstName, u.lastName, u.email, d.specialty, COALESCE(dep.name, 'General'), d.phone, d.about, " +
+            "d.rating, d.isAvailable, d.experienceYears, d.patientsCount, d.workingHours, NULL) " +
+            "FROM Doctor d JOIN d.user u LEFT JOIN d.department dep ORDER BY d.id")
+    List<DoctorDetailResponse> findDirectory();
+
+    // Same department fallback as findDirectory
+    @Query("SELECT COALESCE(dep.name, 'General') FROM Doctor d LEFT JOIN d.department dep WHERE d.id = :id")
+    Optional<String> findDepartmentNameById(@Param("id") int id);
     Optional<Doctor> findFirstByIsDoctorOfTheMonthTrue();
+
+    Optional<Doctor> findFirstByOrderByIdAsc();
+
+    @Modifying
+    @Query("UPDATE Doctor d SET d.isDoctorOfTheMonth = false WHERE d.isDoctorOfTheMonth = true AND d.id <> :winnerId")
+    int clearDoctorOfTheMonthExcept(@Param("winnerId") int winnerId);
+
+    @Modifying
+    @Query("UPDATE Doctor d SET d.isDoctorOfTheMonth = true WHERE d.id = :winnerId")
+    int markDoctorOfTheMonth(@Param("winnerId") int winnerId);
+
+    // [isAvailable, count]
+    @Query("SELECT d.isAvailable, COUNT(d) FROM Doctor d GROUP BY d.isAvailable")
+    List<Object[]> countGroupedByAvailability();
 }
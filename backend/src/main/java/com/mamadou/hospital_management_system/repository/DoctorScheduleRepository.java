@@ -2,12 +2,56 @@ package com.mamadou.hospital_management_system.repository;
 
 import com.mamadou.hospital_management_system.model.Doctor;
 import com.mamadou.hospital_management_system.model.DoctorSchedule;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface DoctorScheduleRepository extends JpaRepository<DoctorSchedule,Long> {
     List<DoctorSchedule> findByDoctor(Doctor doctor);
+
+    // Adding a schedule re-reads the day under lock so merges don't race slot claims on the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DoctorSchedule s WHERE s.doctor.id = :doctorId AND s.dayOfWeek = :dayOfWeek ORDER BY s.id")
+    List<DoctorSchedule> findByDoctorIdAndDayOfWeekForUpdate(@Param("doctorId") int doctorId,
+                                                             @Param("dayOfWeek") DayOfWeek dayOfWeek);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DoctorSchedule s WHERE s.doctor.id IN :doctorIds ORDER BY s.id")
+    List<DoctorSchedule> findByDoctorIdsForUpdate(@Param("doctorIds") Collection<Integer> doctorIds);
+
+    @Query("SELECT s FROM DoctorSchedule s JOIN FETCH s.doctor d JOIN FETCH d.user LEFT JOIN FETCH d.department")
+    List<DoctorSchedule> findAllWithDoctor();
+
+    @Query("SELECT DISTINCT s.doctor.id FROM DoctorSchedule s")
+    List<Integer> findDoctorIds();
+
+    @Query("SELECT s FROM DoctorSchedule s JOIN FETCH s.doctor d JOIN FETCH d.user LEFT JOIN FETCH d.department WHERE d.id = :doctorId")
+    List<DoctorSchedule> findByDoctorIdWithDoctor(@Param("doctorId") int doctorId);
+
+    // Batch booking locks every schedule it draws from once, then decrements in memory
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DoctorSchedule s WHERE s.id IN :ids ORDER BY s.id")
+    List<DoctorSchedule> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Returns 1 when a slot was taken, 0 when the schedule is full (or missing)
+    @Modifying
+    @Query("UPDATE DoctorSchedule s SET s.availableSlots = s.availableSlots - 1 WHERE s.id = :id AND s.availableSlots > 0")
+    int claimSlot(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE DoctorSchedule s SET s.availableSlots = s.availableSlots + 1 WHERE s.id = :id")
+    int releaseSlot(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE DoctorSchedule s SET s.availableSlots = s.availableSlots + :count WHERE s.id = :id")
+    int releaseSlots(@Param("id") Long id, @Param("count") int count);
 }
@@ -0,0 +1,49 @@
+package com.mamadou.hospital_management_system.repository;
+
+import com.mamadou.hospital_management_system.model.DoctorSlotDay;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DoctorSlotDayRepository extends JpaRepository<DoctorSlotDay, Long> {
+
+    // Row lock so two bookings for the same doctor-day serialize on the bit flip
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DoctorSlotDay s WHERE s.doctor.id = :doctorId AND s.slotDate = :date")
+    Optional<DoctorSlotDay> findForUpdate(@Param("doctorId") int doctorId, @Param("date") LocalDate date);
+
+    // Superset lock for a batch: every listed doctor on every listed date. Rows are locked in
+    // (doctor, date) order everywhere, so two lockers can never wait on each other.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DoctorSlotDay s WHERE s.doctor.id IN :doctorIds AND s.slotDate IN :dates " +
+            "ORDER BY s.doctor.id, s.slotDate")
+    List<DoctorSlotDay> findAllForUpdate(@Param("doctorIds") Collection<Integer> doctorIds, @Param("dates") Collection<LocalDate> dates);
+
+    @Query("SELECT s FROM DoctorSlotDay s WHERE s.doctor.id = :doctorId AND s.slotDate >= :from AND s.slotDate < :to ORDER BY s.slotDate")
+    List<DoctorSlotDay> findByDoctorBetween(@Param("doctorId") int doctorId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Schedule changes lock the days they rewrite, so a booking cannot commit in between
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DoctorSlotDay s WHERE s.doctor.id = :doctorId AND s.slotDate >= :from AND s.slotDate < :to " +
+            "ORDER BY s.slotDate")
+    List<DoctorSlotDay> findByDoctorBetweenForUpdate(@Param("doctorId") int doctorId,
+                                                    @Param("from") LocalDate from,
+                                                    @Param("to") LocalDate to);
+
+    @Query("SELECT DISTINCT s.doctor.id FROM DoctorSlotDay s WHERE s.slotDate >= :from")
+    List<Integer> findDoctorIdsFrom(@Param("from") LocalDate from);
+
+    @Modifying
+    @Query("DELETE FROM DoctorSlotDay s WHERE s.slotDate < :date")
+    int deleteBefore(@Param("date") LocalDate date);
+}
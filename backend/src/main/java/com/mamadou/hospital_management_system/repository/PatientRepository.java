@@ -1,15 +1,92 @@
 package com.mamadou.hospital_management_system.repository;
 
+import com.mamadou.hospital_management_system.dto.PatientDetailResponse;
 import com.mamadou.hospital_management_system.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient,Long> {
+
+    @Query("SELECT p.id FROM Patient p WHERE p.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
     Optional<Patient> findByUserEmail(String email);
-    long countByStatus(String status);
-    List<Patient> findTop5ByOrderByIdDesc();
+
+    @Query("SELECT p FROM Patient p LEFT JOIN FETCH p.user WHERE p.id = :id")
+    Optional<Patient> findWithUserById(@Param("id") long id);
+
+    String SEARCH_FIELDS_SELECT = "SELECT p.id, u.firstName, u.lastName, u.email, p.phone, " +
+            "COALESCE(p.address, u.address), p.status FROM Patient p LEFT JOIN p.user u ";
+
+    // [id, firstName, lastName, email, phone, address, status] for the search index
+    @Query(SEARCH_FIELDS_SELECT)
+    List<Object[]> findSearchFields();
+
+    @Query(SEARCH_FIELDS_SELECT + "WHERE p.id = :id")
+    List<Object[]> findSearchFieldsById(@Param("id") long id);
+
+    // Directory rows projected with a single join to users; null filters are ignored
+    @Query("SELECT new com.mamadou.hospital_management_system.dto.PatientDetailResponse(" +
+            "p.id, u.firstName, u.lastName, u.email, p.gender, p.bloodGroup, p.age, p.weight, p.height, " +
+            "p.phone, p.address, p.status, p.type, p.pulseRate, p.bloodPressure, p.bloodOxygen, NULL, NULL) " +
+            "FROM Patient p JOIN p.user u " +
+            "WHERE (:afterId IS NULL OR p.id > :afterId) " +
+            "AND (:status IS NULL OR p.status = :status) " +
+            "AND (:bloodGroup IS NULL OR p.bloodGroup = :bloodGroup) " +
+            "AND (:minAge IS NULL OR p.age >= :minAge) " +
+            "AND (:maxAge IS NULL OR p.age <= :maxAge)")
+    List<PatientDetailResponse> findDirectory(@Param("afterId") Long afterId,
+                                              @Param("status") String status,
+                                              @Param("bloodGroup") String bloodGroup,
+                                              @Param("minAge") Integer minAge,
+                                              @Param("maxAge") Integer maxAge,
+                                              Pageable pageable);
+
+    @Query("SELECT p FROM Patient p LEFT JOIN FETCH p.user ORDER BY p.id DESC")
+    List<Patient> findRecentWithUser(Limit limit);
+
+    // [status, count]
+    @Query("SELECT p.status, COUNT(p) FROM Patient p GROUP BY p.status")
+    List<Object[]> countGroupedByStatus();
+
+    // Single row: [child, teen, adult, older]
+    @Query("SELECT " +
+            "COALESCE(SUM(CASE WHEN p.age <= 12 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN p.age > 12 AND p.age <= 19 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN p.age > 19 AND p.age <= 59 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN p.age > 59 THEN 1 ELSE 0 END), 0) " +
+            "FROM Patient p")
+    List<Object[]> countByAgeBucket();
+
+    // [year, month, lower(status), count] for patients registered since the given instant
+    @Query("SELECT YEAR(p.createdAt), MONTH(p.createdAt), LOWER(p.status), COUNT(p) FROM Patient p " +
+            "WHERE p.createdAt >= :since " +
+            "GROUP BY YEAR(p.createdAt), MONTH(p.createdAt), LOWER(p.status)")
+    List<Object[]> countByMonthAndStatusSince(@Param("since") LocalDateTime since);
+
+    // [type, count], most common first
+    @Query("SELECT p.type, COUNT(p) FROM Patient p WHERE p.type IS NOT NULL GROUP BY p.type ORDER BY COUNT(p) DESC")
+    List<Object[]> countTopDiagnoses(Limit limit);
+
+    // [id, firstName, lastName, email, gender, bloodGroup, age, weight, height, phone, address, status, type,
+    // createdAt]; a forward-only cursor for exports, read a fetch-size batch at a time
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id, u.firstName, u.lastName, u.email, p.gender, p.bloodGroup, p.age, p.weight, p.height, " +
+            "p.phone, COALESCE(p.address, u.address), p.status, p.type, p.createdAt " +
+            "FROM Patient p LEFT JOIN p.user u ORDER BY p.id")
+    Stream<Object[]> streamExportRows();
 }
@@ -3,10 +3,20 @@ package com.mamadou.hospital_management_system.repository;
 import com.mamadou.hospital_management_system.model.Doctor;
 import com.mamadou.hospital_management_system.model.MedicalRecord;
 import com.mamadou.hospital_management_system.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RecordRepository extends JpaRepository<MedicalRecord,Long> {
@@ -14,4 +24,26 @@ public interface RecordRepository extends JpaRepository<MedicalRecord,Long> {
     Optional<MedicalRecord>findByPatient(Patient patient);
     Optional<MedicalRecord> findByIssuedBy(Doctor doctor);
     long countByPriority(String priority);
+
+    // [id, diagnosis, prescription, issueDate], newest first
+    @Query("SELECT r.id, r.diagnosis, r.prescription, r.issueDate FROM MedicalRecord r " +
+            "WHERE r.patient.id = :patientId ORDER BY r.issueDate DESC, r.id DESC")
+    List<Object[]> findSummariesByPatientId(@Param("patientId") long patientId, Pageable pageable);
+
+    // [doctorId, records issued] in [from, to)
+    @Query("SELECT r.issuedBy.id, COUNT(r) FROM MedicalRecord r " +
+            "WHERE r.issueDate >= :from AND r.issueDate < :to GROUP BY r.issuedBy.id")
+    List<Object[]> countByDoctorBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // [patientId, diagnosis] ordered so the first row per patient is their earliest record
+    @Query("SELECT r.patient.id, r.diagnosis FROM MedicalRecord r WHERE r.patient.id IN :patientIds ORDER BY r.id")
+    List<Object[]> findDiagnosesByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+
+    // [id, patientId, patientFirstName, patientLastName, doctorId, doctorFirstName, doctorLastName,
+    // diagnosis, priority, prescription, notes, issueDate]; a forward-only cursor for exports
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.id, p.id, pu.firstName, pu.lastName, d.id, du.firstName, du.lastName, " +
+            "r.diagnosis, r.priority, r.prescription, r.notes, r.issueDate FROM MedicalRecord r " +
+            "LEFT JOIN r.patient p LEFT JOIN p.user pu LEFT JOIN r.issuedBy d LEFT JOIN d.user du ORDER BY r.id")
+    Stream<Object[]> streamExportRows();
 }
@@ -1,6 +1,7 @@
 package com.mamadou.hospital_management_system.security;
 
 import com.mamadou.hospital_management_system.service.MyUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,7 +9,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -37,29 +37,32 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String email;
+        Claims claims;
 
         try {
-
-            email = jwtService.extractEmail(token);
+            claims = jwtService.extractAllClaims(token);
         } catch (Exception e) {
             filterChain.doFilter(request, response);
             return;
         }
 
+        String email = claims.getSubject();
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            UserDetails userDetails = myUserDetailsService.loadUserByUsername(email);
+        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
+            // The principal comes from the signed claims; the cached user only confirms
+            // the account still exists with the same id and role the token was issued for
+            AuthenticatedUser principal = jwtService.toPrincipal(claims);
+            AuthenticatedUser current = myUserDetailsService.loadAuthenticatedUser(email);
 
-            if (jwtService.isTokenValid(token, userDetails)) {
+            if (current != null && matches(principal, current) && jwtService.isTokenValid(claims, current)) {
 
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails,
+                                principal != null ? principal : current,
                                 null,
-                                userDetails.getAuthorities()
+                                current.getAuthorities()
                         );
 
                 authToken.setDetails(
@@ -72,4 +75,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Tokens issued before the id/role claims existed have no principal and rely on the cached user alone
+    private boolean matches(AuthenticatedUser principal, AuthenticatedUser current) {
+        return principal == null
+                || (principal.id() == current.id() && principal.role() == current.role());
+    }
 }
@@ -1,7 +1,10 @@
 package com.mamadou.hospital_management_system.security;
+import com.mamadou.hospital_management_system.enums.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -15,14 +18,25 @@ import java.util.Map;
 @Component
 public class JwtService {
 
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "userId";
+
     @Value("${spring.application.security.jwt.secret-key}")
     private String secretKey;
 
     @Value("${spring.application.security.jwt.expiration}")
     private long expirationTime;
 
-    private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+    // Both are immutable and thread-safe, so they are built once instead of per call
+    private SecretKey key;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
     }
 
     public String generateToken(String email, Map<String, Object> extraClaims) {
@@ -31,14 +45,13 @@ public class JwtService {
                 .subject(email)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationTime ))
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
     }
 
+    // Verifies signature and expiry in one pass; throws JwtException if the token is unusable
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
@@ -48,14 +61,30 @@ public class JwtService {
     }
 
     public boolean isTokenExpired(String token) {
-        return extractAllClaims(token)
-                .getExpiration()
-                .before(new Date());
+        return isExpired(extractAllClaims(token));
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        String email = extractEmail(token);
-        return email.equals(userDetails.getUsername())
-                && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !isExpired(claims);
+    }
+
+    // Returns null when the token predates the id/role claims
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), Role.valueOf(role));
+    }
+
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 }
@@ -0,0 +1,96 @@
+package com.mamadou.hospital_management_system.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Size- and TTL-bounded cache of authenticated users keyed by email.
+// Services must call evict() whenever they change, create or delete a user.
+@Component
+public class UserCache {
+
+    private record Entry(AuthenticatedUser user, long expiresAt) {}
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    // One token per key being loaded; evict() drops it, so a load that raced the eviction is not cached
+    private final Map<String, Object> loading = new HashMap<>();
+
+    public UserCache(@Value("${spring.application.security.user-cache.max-size:10000}") int maxSize,
+                     @Value("${spring.application.security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserCache.this.maxSize;
+            }
+        };
+    }
+
+    public Optional<AuthenticatedUser> get(String email, Function<String, Optional<AuthenticatedUser>> loader) {
+        long now = System.currentTimeMillis();
+        Object token = new Object();
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null && entry.expiresAt() > now) {
+                return Optional.of(entry.user());
+            }
+            entries.remove(email);
+            loading.put(email, token);
+        }
+
+        // Load outside the lock so a slow query does not block other requests
+        Optional<AuthenticatedUser> loaded;
+        try {
+            loaded = loader.apply(email);
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                loading.remove(email, token);
+            }
+            throw e;
+        }
+        synchronized (entries) {
+            if (loading.remove(email, token)) {
+                loaded.ifPresent(user -> entries.put(email, new Entry(user, now + ttlMillis)));
+            }
+        }
+        return loaded;
+    }
+
+    // Evicts now and again after commit, so a load racing the write cannot re-cache the old user
+    public void evict(String email) {
+        if (email == null) return;
+        remove(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(email);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            loading.clear();
+        }
+    }
+
+    private void remove(String email) {
+        synchronized (entries) {
+            entries.remove(email);
+            loading.remove(email);
+        }
+    }
+}
@@ -1,33 +1,31 @@
 package com.mamadou.hospital_management_system.service;
 
+import com.mamadou.hospital_management_system.dto.AppointmentResponse;
+import com.mamadou.hospital_management_system.dto.BatchBookingResponse;
 import com.mamadou.hospital_management_system.dto.BookAppointmentRequest;
+import com.mamadou.hospital_management_system.dto.BulkStatusRequest;
+import com.mamadou.hospital_management_system.dto.BulkStatusResponse;
 import com.mamadou.hospital_management_system.dto.MessageResponse;
 import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.enums.Role;
+import com.mamadou.hospital_management_system.event.AppointmentChangedEvent;
 import com.mamadou.hospital_management_system.model.Appointment;
 import com.mamadou.hospital_management_system.model.Doctor;
 import com.mamadou.hospital_management_system.model.DoctorSchedule;
+import com.mamadou.hospital_management_system.model.DoctorSlotDay;
 import com.mamadou.hospital_management_system.model.Patient;
 import com.mamadou.hospital_management_system.repository.*;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import com.mamadou.hospital_management_system.dto.AppointmentResponse;
-import com.mamadou.hospital_management_system.dto.BookAppointmentRequest;
-import com.mamadou.hospital_management_system.dto.MessageResponse;
-import com.mamadou.hospital_management_system.enums.BookingStatus;
-import com.mamadou.hospital_management_system.model.Appointment;
-import com.mamadou.hospital_management_system.model.Doctor;
-import com.mamadou.hospital_management_system.model.DoctorSchedule;
-import com.mamadou.hospital_management_system.model.Patient;
-import com.mamadou.hospital_management_system.repository.*;
-import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Service;
-
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,23 +37,32 @@ public class AppointmentService {
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final DoctorScheduleRepository doctorScheduleRepository;
-    private final UserRepository userRepository;
+    private final SlotReservationService slotReservationService;
+    private final SlotMaterializer slotMaterializer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Keyset page ordered by (appointmentDate, id); pass the last row's date and id to get the next page
+    public List<AppointmentResponse> getAllAppointments(LocalDateTime afterDate, Long afterId, int size) {
+        Limit limit = Limit.of(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        Long cursorId = afterId != null ? afterId : 0L;
 
-    public List<AppointmentResponse> getAllAppointments() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        com.mamadou.hospital_management_system.model.User user = userRepository.findByEmail(email).orElse(null);
+        boolean isDoctor = authentication.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + Role.DOCTOR.name()).equals(a.getAuthority()));
 
-        if (user != null && user.getRole() == com.mamadou.hospital_management_system.enums.Role.DOCTOR) {
-            return appointmentRepository.findAll().stream()
-                    .filter(a -> a.getDoctor().getUser().getEmail().equals(email))
-                    .map(this::mapToResponse)
-                    .collect(Collectors.toList());
+        if (isDoctor) {
+            String email = authentication.getName();
+            return afterDate == null
+                    ? appointmentRepository.findFirstPageByDoctorEmail(email, limit)
+                    : appointmentRepository.findPageByDoctorEmailAfter(email, afterDate, cursorId, limit);
         }
 
-        return appointmentRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return afterDate == null
+                ? appointmentRepository.findFirstPage(limit)
+                : appointmentRepository.findPageAfter(afterDate, cursorId, limit);
     }
 
     public AppointmentResponse getAppointmentById(Long id) {
@@ -72,6 +79,12 @@ public class AppointmentService {
         if (request.scheduleId() != null) {
             schedule = doctorScheduleRepository.findById(request.scheduleId()).orElse(null);
         }
+        if (schedule != null && !slotReservationService.tryReserve(schedule.getId())) {
+            throw new RuntimeException("No available slots for this schedule");
+        }
+        if (!slotMaterializer.reserve(doctor.getId(), request.appointmentDate())) {
+            throw new RuntimeException("That time slot is already booked");
+        }
 
         Appointment appointment = new Appointment();
         appointment.setPatient(patient);
@@ -83,13 +96,118 @@ public class AppointmentService {
         appointment.setStatus(BookingStatus.BOOKED);
         
         appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(appointment.getId(), doctor.getId(), patient.getId(),
+                appointment.getAppointmentDate(), null, BookingStatus.BOOKED));
         return new MessageResponse("Appointment booked successfully");
     }
 
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    // Books many appointments in one transaction. Doctors, patients, schedules and slot days are each
+    // checked or locked with one set-based query; the inserts go out as JDBC batches. Failed items are
+    // reported by index and do not stop the others.
+    public BatchBookingResponse bookAppointments(List<BookAppointmentRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " appointments per batch");
+        }
+
+        Set<Integer> doctorIds = doctorRepository.findExistingIds(
+                requests.stream().map(BookAppointmentRequest::doctorId).collect(Collectors.toSet()));
+        Set<Long> patientIds = patientRepository.findExistingIds(
+                requests.stream().map(BookAppointmentRequest::patientId).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Set<Long> scheduleIds = requests.stream().map(BookAppointmentRequest::scheduleId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, DoctorSchedule> schedules = scheduleIds.isEmpty() ? Map.of() : doctorScheduleRepository.findAllForUpdate(scheduleIds)
+                .stream()
+                .collect(Collectors.toMap(DoctorSchedule::getId, s -> s));
+        Map<SlotMaterializer.DayKey, DoctorSlotDay> days = slotMaterializer.lockDays(doctorIds,
+                requests.stream().map(BookAppointmentRequest::appointmentDate).filter(Objects::nonNull)
+                        .map(LocalDateTime::toLocalDate).collect(Collectors.toSet()));
+
+        String[] errors = new String[requests.size()];
+        List<Appointment> appointments = new ArrayList<>();
+        List<Integer> bookedIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookAppointmentRequest request = requests.get(i);
+            DoctorSchedule schedule = request.scheduleId() != null ? schedules.get(request.scheduleId()) : null;
+            if (!doctorIds.contains(request.doctorId())) {
+                errors[i] = "Doctor not found";
+            } else if (!patientIds.contains(request.patientId())) {
+                errors[i] = "Patient not found";
+            } else if (schedule != null && schedule.getAvailableSlots() <= 0) {
+                errors[i] = "No available slots for this schedule";
+            } else {
+                try {
+                    LocalDateTime date = request.appointmentDate();
+                    DoctorSlotDay day = date != null ? days.get(new SlotMaterializer.DayKey(request.doctorId(), date.toLocalDate())) : null;
+                    if (!slotMaterializer.reserve(day, date)) {
+                        errors[i] = "That time slot is already booked";
+                        continue;
+                    }
+                } catch (RuntimeException e) {
+                    errors[i] = e.getMessage();
+                    continue;
+                }
+                if (schedule != null) {
+                    schedule.setAvailableSlots(schedule.getAvailableSlots() - 1);
+                }
+
+                Appointment appointment = new Appointment();
+                appointment.setPatient(patientRepository.getReferenceById(request.patientId()));
+                appointment.setDoctor(doctorRepository.getReferenceById(request.doctorId()));
+                appointment.setDoctorSchedule(schedule);
+                appointment.setReason(request.reason());
+                appointment.setVisitType(request.visitType() != null ? request.visitType() : "Consultation");
+                appointment.setAppointmentDate(request.appointmentDate());
+                appointment.setStatus(BookingStatus.BOOKED);
+                appointments.add(appointment);
+                bookedIndexes.add(i);
+            }
+        }
+
+        appointmentRepository.saveAll(appointments);
+
+        List<BatchBookingResponse.ItemResult> results = new ArrayList<>(requests.size());
+        Long[] ids = new Long[requests.size()];
+        for (int n = 0; n < appointments.size(); n++) {
+            Appointment appointment = appointments.get(n);
+            BookAppointmentRequest request = requests.get(bookedIndexes.get(n));
+            ids[bookedIndexes.get(n)] = appointment.getId();
+            eventPublisher.publishEvent(new AppointmentChangedEvent(appointment.getId(), request.doctorId(), request.patientId(),
+                    appointment.getAppointmentDate(), null, BookingStatus.BOOKED));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new BatchBookingResponse.ItemResult(i, ids[i], errors[i]));
+        }
+        return new BatchBookingResponse(appointments.size(), requests.size() - appointments.size(), results);
+    }
+
     public MessageResponse updateStatus(Long id, BookingStatus status) {
-        Appointment appointment = appointmentRepository.findById(id).orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Appointment appointment = appointmentRepository.findByIdForUpdate(id).orElseThrow(() -> new RuntimeException("Appointment not found"));
+        if (appointment.getStatus() != null && !appointment.getStatus().canTransitionTo(status)) {
+            throw new RuntimeException("Cannot change an appointment from " + appointment.getStatus() + " to " + status);
+        }
+        // Schedule row before slot day, the order every booking and schedule change locks them in
+        if (appointment.getDoctorSchedule() != null && appointment.getStatus() != status) {
+            if (status == BookingStatus.CANCELLED) {
+                slotReservationService.release(appointment.getDoctorSchedule().getId());
+            } else if (appointment.getStatus() == BookingStatus.CANCELLED
+                    && !slotReservationService.tryReserve(appointment.getDoctorSchedule().getId())) {
+                throw new RuntimeException("No available slots for this schedule");
+            }
+        }
+        if (appointment.getStatus() != status) {
+            if (status == BookingStatus.CANCELLED) {
+                slotMaterializer.release(appointment.getDoctor().getId(), appointment.getAppointmentDate());
+            } else if (appointment.getStatus() == BookingStatus.CANCELLED
+                    && !slotMaterializer.reserve(appointment.getDoctor().getId(), appointment.getAppointmentDate())) {
+                throw new RuntimeException("That time slot is already booked");
+            }
+        }
+        BookingStatus previous = appointment.getStatus();
         appointment.setStatus(status);
         appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(appointment.getId(), appointment.getDoctor().getId(),
+                appointment.getPatient().getId(), appointment.getAppointmentDate(), previous, status));
         return new MessageResponse("Appointment status updated to " + status);
     }
 
@@ -97,6 +215,88 @@ public class AppointmentService {
         return updateStatus(id, BookingStatus.CANCELLED);
     }
 
+    private static final int UPDATE_CHUNK = 1000;
+
+    // Set-based version of updateStatus for end-of-day processing and mass cancellations. Only rows whose
+    // current status may legally reach the target are touched. Leaving CANCELLED is excluded because
+    // re-booking has to re-check capacity item by item.
+    public BulkStatusResponse bulkUpdateStatus(BulkStatusRequest request) {
+        BookingStatus target = request.status();
+        if (target == null) {
+            throw new RuntimeException("Target status is required");
+        }
+        boolean byIds = request.appointmentIds() != null && !request.appointmentIds().isEmpty();
+        if (!byIds && request.doctorId() == null && request.from() == null && request.to() == null) {
+            throw new RuntimeException("Give appointment ids, a doctor or a date range");
+        }
+        if (byIds && request.appointmentIds().size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " appointments per request");
+        }
+
+        Set<BookingStatus> sources = EnumSet.noneOf(BookingStatus.class);
+        sources.addAll(BookingStatus.sourcesOf(target));
+        sources.remove(BookingStatus.CANCELLED);
+        if (request.currentStatus() != null) {
+            sources.retainAll(EnumSet.of(request.currentStatus()));
+        }
+        if (sources.isEmpty()) {
+            return new BulkStatusResponse(target, 0, Map.of());
+        }
+
+        List<Object[]> rows = byIds
+                ? appointmentRepository.findTransitionCandidatesByIds(request.appointmentIds(), sources,
+                        request.doctorId(), request.from(), request.to())
+                : appointmentRepository.findTransitionCandidates(sources, request.doctorId(), request.from(), request.to());
+        if (rows.isEmpty()) {
+            return new BulkStatusResponse(target, 0, Map.of());
+        }
+
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).toList();
+        int updated = 0;
+        for (int i = 0; i < ids.size(); i += UPDATE_CHUNK) {
+            updated += appointmentRepository.updateStatusByIds(ids.subList(i, Math.min(i + UPDATE_CHUNK, ids.size())), sources, target);
+        }
+        // The candidates are locked, so every one of them changes; anything else would release capacity
+        // and publish events for rows that did not move
+        if (updated != ids.size()) {
+            throw new RuntimeException("Appointments changed during the update, please retry");
+        }
+
+        if (target == BookingStatus.CANCELLED) {
+            releaseCapacity(rows);
+        }
+        Map<BookingStatus, Long> updatedFrom = new EnumMap<>(BookingStatus.class);
+        for (Object[] row : rows) {
+            BookingStatus previous = (BookingStatus) row[5];
+            updatedFrom.merge(previous, 1L, Long::sum);
+            eventPublisher.publishEvent(new AppointmentChangedEvent((Long) row[0], (Integer) row[1], (Long) row[2],
+                    (LocalDateTime) row[4], previous, target));
+        }
+        return new BulkStatusResponse(target, updated, updatedFrom);
+    }
+
+    // Columns as in AppointmentRepository.findTransitionCandidates
+    private void releaseCapacity(List<Object[]> rows) {
+        rows.stream()
+                .filter(row -> row[3] != null)
+                .collect(Collectors.groupingBy(row -> (Long) row[3], Collectors.counting()))
+                .forEach((scheduleId, count) -> slotReservationService.release(scheduleId, count.intValue()));
+
+        Set<Integer> doctorIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (Object[] row : rows) {
+            if (row[4] == null) continue;
+            doctorIds.add((Integer) row[1]);
+            dates.add(((LocalDateTime) row[4]).toLocalDate());
+        }
+        Map<SlotMaterializer.DayKey, DoctorSlotDay> days = slotMaterializer.lockDays(doctorIds, dates);
+        for (Object[] row : rows) {
+            if (row[4] == null) continue;
+            LocalDateTime date = (LocalDateTime) row[4];
+            slotMaterializer.release(days.get(new SlotMaterializer.DayKey((Integer) row[1], date.toLocalDate())), date);
+        }
+    }
+
     private AppointmentResponse mapToResponse(Appointment a) {
         return new AppointmentResponse(
                 a.getId(),
@@ -112,4 +312,3 @@ public class AppointmentService {
         );
     }
 }
-
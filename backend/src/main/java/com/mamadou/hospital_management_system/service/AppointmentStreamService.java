@@ -0,0 +1,204 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.AppointmentStreamEvent;
+import com.mamadou.hospital_management_system.enums.Role;
+import com.mamadou.hospital_management_system.event.AppointmentChangedEvent;
+import com.mamadou.hospital_management_system.event.DoctorChangedEvent;
+import com.mamadou.hospital_management_system.repository.DoctorRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fans committed appointment changes out to SSE subscribers. Each subscriber has a bounded queue
+// drained by a small shared pool, so publishing never blocks on a client; a subscriber whose
+// queue overflows is disconnected and is expected to reconnect and refetch.
+@Service
+public class AppointmentStreamService {
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final String user;
+        final Integer doctorId;
+        final String department;
+        final Queue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, String user, Integer doctorId, String department) {
+            this.emitter = emitter;
+            this.user = user;
+            this.doctorId = doctorId;
+            this.department = department;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        boolean wants(AppointmentStreamEvent event) {
+            return (doctorId == null || doctorId == event.doctorId())
+                    && (department == null || department.equalsIgnoreCase(event.departmentName()));
+        }
+    }
+
+    private final DoctorRepository doctorRepository;
+    private final int maxSubscribers;
+    private final int maxSubscribersPerUser;
+    private final int queueCapacity;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Open streams per user, only changed under the instance lock together with subscribers
+    private final Map<String, Integer> subscribersPerUser = new HashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService senders;
+    private final Map<Integer, String> departments = new ConcurrentHashMap<>();
+
+    public AppointmentStreamService(DoctorRepository doctorRepository,
+                                    @Value("${spring.application.stream.max-subscribers:500}") int maxSubscribers,
+                                    @Value("${spring.application.stream.max-subscribers-per-user:5}") int maxSubscribersPerUser,
+                                    @Value("${spring.application.stream.queue-capacity:256}") int queueCapacity,
+                                    @Value("${spring.application.stream.sender-threads:4}") int senderThreads) {
+        this.doctorRepository = doctorRepository;
+        this.maxSubscribers = maxSubscribers;
+        this.maxSubscribersPerUser = maxSubscribersPerUser;
+        this.queueCapacity = queueCapacity;
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "appointment-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Returns null when the overall or the caller's own subscriber limit is reached, so one user cannot
+    // take every stream. Doctors only ever see their own appointments, whatever doctorId they pass.
+    // Synchronized so the checks and the add are one step; removals only ever make room.
+    public synchronized SseEmitter subscribe(Integer doctorId, String department) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String user = authentication.getName();
+        if (subscribers.size() >= maxSubscribers || subscribersPerUser.getOrDefault(user, 0) >= maxSubscribersPerUser) {
+            return null;
+        }
+        boolean isDoctor = authentication.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + Role.DOCTOR.name()).equals(a.getAuthority()));
+        if (isDoctor) {
+            doctorId = doctorRepository.findByUserEmail(user)
+                    .orElseThrow(() -> new RuntimeException("Doctor not found"))
+                    .getId();
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, user, doctorId, department);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        subscribersPerUser.merge(user, 1, Integer::sum);
+        enqueue(subscriber, SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (subscribers.isEmpty()) return;
+
+        AppointmentStreamEvent payload = new AppointmentStreamEvent(
+                event.previousStatus() == null ? "CREATED" : "STATUS_CHANGED",
+                event.appointmentId(),
+                event.doctorId(),
+                departmentOf(event.doctorId()),
+                event.patientId(),
+                event.appointmentDate(),
+                event.previousStatus(),
+                event.status()
+        );
+        String id = Long.toString(sequence.incrementAndGet());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.wants(payload)) {
+                enqueue(subscriber, SseEmitter.event().id(id).name("appointment").data(payload));
+            }
+        }
+    }
+
+    // Department edits publish a DoctorChangedEvent without an id
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.doctorId() == null) {
+            departments.clear();
+        } else {
+            departments.remove(event.doctorId());
+        }
+    }
+
+    // Keeps idle connections open through proxies and flushes out dead clients
+    @Scheduled(fixedDelayString = "${spring.application.stream.heartbeat-millis:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+        subscribersPerUser.clear();
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue.offer(event)) {
+            evict(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            evict(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have arrived between the last poll and releasing the flag
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private synchronized boolean remove(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return false;
+        }
+        subscribersPerUser.computeIfPresent(subscriber.user, (user, count) -> count > 1 ? count - 1 : null);
+        return true;
+    }
+
+    // One lookup per doctor until it changes. computeIfAbsent holds the entry while loading, so an
+    // invalidation cannot slip in between the read and the put.
+    private String departmentOf(int doctorId) {
+        return departments.computeIfAbsent(doctorId, id -> doctorRepository.findDepartmentNameById(id).orElse(null));
+    }
+}
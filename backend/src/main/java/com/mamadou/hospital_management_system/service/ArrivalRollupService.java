@@ -0,0 +1,63 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.DashboardResponse;
+import com.mamadou.hospital_management_system.model.ArrivalRollup;
+import com.mamadou.hospital_management_system.repository.ArrivalRollupRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class ArrivalRollupService {
+
+    private final ArrivalRollupRepository arrivalRollupRepository;
+
+    // Called inside the transaction that creates the patient. Only the day's row is written, so
+    // concurrent arrivals contend on one row per day rather than one per month.
+    public void recordPatientArrival(LocalDateTime arrivedAt, String status) {
+        long in = "Inpatient".equalsIgnoreCase(status) ? 1 : 0;
+        long out = "Outpatient".equalsIgnoreCase(status) ? 1 : 0;
+        if (in == 0 && out == 0) return;
+        arrivalRollupRepository.increment(arrivedAt.toLocalDate(), in, out);
+    }
+
+    // Sums at most a few hundred day rows into months, however much history is stored
+    public List<DashboardResponse.ArrivalData> getMonthlyArrivals(int months) {
+        YearMonth current = YearMonth.now();
+        YearMonth first = current.minusMonths(months - 1L);
+        Map<YearMonth, long[]> totals = new HashMap<>();
+        for (ArrivalRollup day : arrivalRollupRepository.findByArrivalDateBetweenOrderByArrivalDate(
+                first.atDay(1), current.atEndOfMonth())) {
+            long[] total = totals.computeIfAbsent(YearMonth.from(day.getArrivalDate()), m -> new long[2]);
+            total[0] += day.getInpatients();
+            total[1] += day.getOutpatients();
+        }
+
+        List<DashboardResponse.ArrivalData> result = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+            long[] total = totals.getOrDefault(month, new long[2]);
+            result.add(new DashboardResponse.ArrivalData(
+                    month.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH),
+                    (int) total[0],
+                    (int) total[1]
+            ));
+        }
+        return result;
+    }
+
+    // Fills in any day that has patients but no rollup yet. Days that already have a row keep it, so
+    // this is safe on every start and alongside live increments.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        arrivalRollupRepository.backfillDaysFromPatients();
+    }
+}
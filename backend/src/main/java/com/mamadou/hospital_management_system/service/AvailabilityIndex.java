@@ -0,0 +1,143 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.AvailableDoctorResponse;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// In-memory interval index of weekly schedules and booked appointment start times.
+// Doctor entries are immutable and swapped atomically, so queries never take a lock. Bookings are keyed by
+// appointment id, so applying the same booking or release twice leaves the index unchanged.
+public class AvailabilityIndex {
+
+    public static final Duration SLOT = Duration.ofMinutes(30);
+
+    public record Interval(LocalTime start, LocalTime end) {}
+
+    public record DoctorEntry(int doctorId, String name, String department, String specialty,
+                              boolean available, Map<DayOfWeek, List<Interval>> schedule) {}
+
+    private final Map<Integer, DoctorEntry> doctors = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> byDepartment = new ConcurrentHashMap<>();
+    private final Map<Integer, ConcurrentSkipListMap<LocalDateTime, Set<Long>>> bookings = new ConcurrentHashMap<>();
+
+    public void putDoctor(DoctorEntry entry) {
+        Map<DayOfWeek, List<Interval>> sorted = new EnumMap<>(DayOfWeek.class);
+        entry.schedule().forEach((day, intervals) -> sorted.put(day, intervals.stream()
+                .sorted(Comparator.comparing(Interval::start))
+                .toList()));
+        DoctorEntry normalized = new DoctorEntry(entry.doctorId(), entry.name(), entry.department(),
+                entry.specialty(), entry.available(), Collections.unmodifiableMap(sorted));
+
+        DoctorEntry previous = doctors.put(entry.doctorId(), normalized);
+        if (previous != null && !Objects.equals(key(previous.department()), key(normalized.department()))) {
+            departmentMembers(previous.department()).remove(entry.doctorId());
+        }
+        departmentMembers(normalized.department()).add(entry.doctorId());
+    }
+
+    public void removeDoctor(int doctorId) {
+        DoctorEntry previous = doctors.remove(doctorId);
+        if (previous != null) {
+            departmentMembers(previous.department()).remove(doctorId);
+        }
+    }
+
+    public void book(int doctorId, long appointmentId, LocalDateTime start) {
+        if (start == null) return;
+        bookings.computeIfAbsent(doctorId, id -> new ConcurrentSkipListMap<>())
+                .compute(start, (time, ids) -> {
+                    Set<Long> next = ids == null ? new HashSet<>() : new HashSet<>(ids);
+                    next.add(appointmentId);
+                    return Set.copyOf(next);
+                });
+    }
+
+    public void release(int doctorId, long appointmentId, LocalDateTime start) {
+        ConcurrentSkipListMap<LocalDateTime, Set<Long>> booked = bookings.get(doctorId);
+        if (booked == null || start == null) return;
+        booked.computeIfPresent(start, (time, ids) -> {
+            Set<Long> next = new HashSet<>(ids);
+            next.remove(appointmentId);
+            return next.isEmpty() ? null : Set.copyOf(next);
+        });
+    }
+
+    // Past slots can never be offered again, so their bookings are dropped
+    public void pruneBefore(LocalDateTime cutoff) {
+        bookings.values().forEach(booked -> booked.headMap(cutoff).clear());
+        bookings.values().removeIf(Map::isEmpty);
+    }
+
+    // Doctors with at least one free SLOT-long opening on the date inside [from, to)
+    public List<AvailableDoctorResponse> find(String department, String specialty, LocalDate date, LocalTime from, LocalTime to) {
+        Collection<Integer> candidates = department != null
+                ? byDepartment.getOrDefault(key(department), Set.of())
+                : doctors.keySet();
+
+        List<AvailableDoctorResponse> result = new ArrayList<>();
+        for (Integer doctorId : candidates) {
+            DoctorEntry doctor = doctors.get(doctorId);
+            if (doctor == null || !doctor.available()) continue;
+            if (specialty != null && !specialty.equalsIgnoreCase(doctor.specialty())) continue;
+
+            List<LocalTime> free = freeSlots(doctor, date, from, to);
+            if (!free.isEmpty()) {
+                result.add(new AvailableDoctorResponse(doctor.doctorId(), doctor.name(), doctor.department(), doctor.specialty(), free));
+            }
+        }
+        result.sort(Comparator.comparing((AvailableDoctorResponse r) -> r.freeSlots().get(0))
+                .thenComparingInt(AvailableDoctorResponse::doctorId));
+        return result;
+    }
+
+    private List<LocalTime> freeSlots(DoctorEntry doctor, LocalDate date, LocalTime from, LocalTime to) {
+        List<Interval> intervals = doctor.schedule().getOrDefault(date.getDayOfWeek(), List.of());
+        if (intervals.isEmpty()) return List.of();
+
+        int slotMinutes = (int) SLOT.toMinutes();
+        int windowStart = minuteOfDay(from);
+        int windowEnd = minuteOfDay(to);
+
+        // One range lookup per doctor: the bookings that can overlap the window, as minutes of the day
+        LocalDateTime midnight = date.atStartOfDay();
+        NavigableMap<LocalDateTime, Set<Long>> booked = bookings.get(doctor.doctorId());
+        List<Integer> taken = new ArrayList<>();
+        if (booked != null) {
+            for (LocalDateTime t : booked.subMap(midnight.plusMinutes(windowStart - slotMinutes), false,
+                    midnight.plusMinutes(windowEnd), false).keySet()) {
+                int minute = t.getHour() * 60 + t.getMinute();
+                taken.add(t.toLocalDate().equals(date) ? minute : minute - 24 * 60);
+            }
+        }
+
+        List<LocalTime> free = new ArrayList<>();
+        for (Interval interval : intervals) {
+            // Slots stay aligned to the schedule start so every client sees the same grid
+            int end = Math.min(minuteOfDay(interval.end()), windowEnd);
+            int next = 0;
+            for (int minute = minuteOfDay(interval.start()); minute + slotMinutes <= end; minute += slotMinutes) {
+                if (minute < windowStart) continue;
+                while (next < taken.size() && taken.get(next) <= minute - slotMinutes) next++;
+                if (next == taken.size() || taken.get(next) >= minute + slotMinutes) {
+                    free.add(LocalTime.of(minute / 60, minute % 60));
+                }
+            }
+        }
+        return free;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.equals(LocalTime.MAX) ? 24 * 60 : time.toSecondOfDay() / 60;
+    }
+
+    private Set<Integer> departmentMembers(String department) {
+        return byDepartment.computeIfAbsent(key(department), k -> ConcurrentHashMap.newKeySet());
+    }
+
+    private static String key(String department) {
+        return department == null ? "" : department.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,104 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.AvailableDoctorResponse;
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.event.AppointmentChangedEvent;
+import com.mamadou.hospital_management_system.event.DoctorChangedEvent;
+import com.mamadou.hospital_management_system.model.Doctor;
+import com.mamadou.hospital_management_system.model.DoctorSchedule;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
+import com.mamadou.hospital_management_system.repository.DoctorScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+    private final DoctorScheduleRepository doctorScheduleRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    private volatile AvailabilityIndex index = new AvailabilityIndex();
+
+    public List<AvailableDoctorResponse> findAvailableDoctors(String department, String specialty,
+                                                              LocalDate date, LocalTime from, LocalTime to) {
+        LocalTime windowStart = from != null ? from : LocalTime.MIN;
+        LocalTime windowEnd = to != null ? to : LocalTime.MAX;
+        if (!windowStart.isBefore(windowEnd)) {
+            throw new RuntimeException("Time window start must be before its end");
+        }
+        return index.find(department, specialty, date, windowStart, windowEnd);
+    }
+
+    // Loads every schedule plus all bookings from today on into a new index, then swaps it in, so queries
+    // never see a half-built one. Changes that commit during the load wait on the monitor and are applied
+    // to the new index, which is harmless for the ones it already read because bookings are idempotent.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        AvailabilityIndex next = new AvailabilityIndex();
+        doctorScheduleRepository.findAllWithDoctor().stream()
+                .collect(Collectors.groupingBy(s -> s.getDoctor().getId()))
+                .values()
+                .forEach(schedules -> next.putDoctor(toEntry(schedules)));
+        for (Object[] row : appointmentRepository.findBookedTimesFrom(LocalDate.now().atStartOfDay())) {
+            next.book((Integer) row[0], (Long) row[2], (LocalDateTime) row[1]);
+        }
+        index = next;
+    }
+
+    @Scheduled(cron = "${spring.application.jobs.availability-prune.cron:0 15 0 * * *}")
+    public synchronized void pruneBookings() {
+        index.pruneBefore(LocalDate.now().atStartOfDay());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAppointmentChanged(AppointmentChangedEvent event) {
+        boolean wasActive = event.previousStatus() != null && event.previousStatus() != BookingStatus.CANCELLED;
+        boolean isActive = event.status() != BookingStatus.CANCELLED;
+        if (isActive && !wasActive) {
+            index.book(event.doctorId(), event.appointmentId(), event.appointmentDate());
+        } else if (wasActive && !isActive) {
+            index.release(event.doctorId(), event.appointmentId(), event.appointmentDate());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.doctorId() == null) {
+            rebuild();
+            return;
+        }
+        List<DoctorSchedule> schedules = doctorScheduleRepository.findByDoctorIdWithDoctor(event.doctorId());
+        if (schedules.isEmpty()) {
+            index.removeDoctor(event.doctorId());
+        } else {
+            index.putDoctor(toEntry(schedules));
+        }
+    }
+
+    private AvailabilityIndex.DoctorEntry toEntry(List<DoctorSchedule> schedules) {
+        Doctor doctor = schedules.get(0).getDoctor();
+        Map<DayOfWeek, List<AvailabilityIndex.Interval>> week = new EnumMap<>(DayOfWeek.class);
+        for (DoctorSchedule s : schedules) {
+            if (s.getDayOfWeek() == null || s.getStartTime() == null || s.getEndTime() == null) continue;
+            week.computeIfAbsent(s.getDayOfWeek(), d -> new ArrayList<>())
+                    .add(new AvailabilityIndex.Interval(s.getStartTime(), s.getEndTime()));
+        }
+        return new AvailabilityIndex.DoctorEntry(
+                doctor.getId(),
+                doctor.getUser().getFirstName() + " " + doctor.getUser().getLastName(),
+                doctor.getDepartment() != null ? doctor.getDepartment().getName() : "General",
+                doctor.getSpecialty(),
+                doctor.isAvailable(),
+                week
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.CacheStatsResponse;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Hit ratios of the second-level and query caches, read from Hibernate's statistics since startup
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheStatsResponse getCacheStats() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheImplementor cache = sessionFactory.getCache();
+
+        // The region names include the query-results region, which has no domain statistics
+        List<CacheStatsResponse.Region> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .filter(name -> cache.getRegion(name) instanceof DomainDataRegion)
+                .sorted()
+                .map(name -> {
+                    CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(name);
+                    return region(name, region.getHitCount(), region.getMissCount(), region.getPutCount());
+                })
+                .toList();
+
+        CacheStatsResponse.Region queryCache = region("query-results", statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount());
+        return new CacheStatsResponse(regions, queryCache);
+    }
+
+    private static CacheStatsResponse.Region region(String name, long hits, long misses, long puts) {
+        long lookups = hits + misses;
+        return new CacheStatsResponse.Region(name, hits, misses, puts, lookups == 0 ? 0 : (double) hits / lookups);
+    }
+}
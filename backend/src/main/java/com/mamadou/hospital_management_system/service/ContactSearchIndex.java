@@ -0,0 +1,196 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.model.Contact;
+
+import java.util.*;
+
+// Immutable in-memory search index over contact name, role, location and email.
+// Substring queries intersect trigram posting lists and verify the survivors; prefix (typeahead) queries
+// look up word prefixes in a sorted token map. A new snapshot is built on every change and swapped in whole.
+public class ContactSearchIndex {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final int GRAM = 3;
+    // name, role, location, email; a hit in the name outranks the same hit anywhere else
+    private static final int[] WEIGHTS = {8, 4, 2, 1};
+
+    private record Scored(int ordinal, int score) {}
+
+    private static final Comparator<Scored> RANK =
+            Comparator.comparingInt(Scored::score).reversed().thenComparingInt(Scored::ordinal);
+
+    private final Contact[] contacts;
+    private final String[][] fields;
+    private final String[][][] words;
+    private final Map<String, int[]> grams;
+    private final NavigableMap<String, int[]> tokens;
+
+    private ContactSearchIndex(Contact[] contacts, String[][] fields, String[][][] words,
+                               Map<String, int[]> grams, NavigableMap<String, int[]> tokens) {
+        this.contacts = contacts;
+        this.fields = fields;
+        this.words = words;
+        this.grams = grams;
+        this.tokens = tokens;
+    }
+
+    public static ContactSearchIndex build(Collection<Contact> source) {
+        // Ordinals follow name order, so equal scores come back alphabetically
+        Contact[] contacts = source.stream()
+                .sorted(Comparator.comparing((Contact c) -> normalize(c.getName())).thenComparing(Contact::getId))
+                .toArray(Contact[]::new);
+        String[][] fields = new String[contacts.length][];
+        String[][][] words = new String[contacts.length][WEIGHTS.length][];
+        Map<String, List<Integer>> grams = new HashMap<>();
+        Map<String, List<Integer>> tokens = new TreeMap<>();
+
+        for (int ordinal = 0; ordinal < contacts.length; ordinal++) {
+            Contact c = contacts[ordinal];
+            fields[ordinal] = new String[]{
+                    normalize(c.getName()), normalize(c.getRole()), normalize(c.getLocation()), normalize(c.getEmail())};
+            for (int f = 0; f < WEIGHTS.length; f++) {
+                String field = fields[ordinal][f];
+                for (int i = 0; i + GRAM <= field.length(); i++) {
+                    post(grams, field.substring(i, i + GRAM), ordinal);
+                }
+                words[ordinal][f] = field.isEmpty() ? new String[0] : field.split(" ");
+                for (String token : words[ordinal][f]) {
+                    post(tokens, token, ordinal);
+                }
+            }
+        }
+        return new ContactSearchIndex(contacts, fields, words, toArrays(new HashMap<>(), grams), toArrays(new TreeMap<>(), tokens));
+    }
+
+    public int size() {
+        return contacts.length;
+    }
+
+    // Best matches first; prefix mode matches every query word against the start of a word in the contact
+    public List<Contact> search(String query, boolean prefix, int limit) {
+        String q = normalize(query);
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (q.isEmpty()) {
+            return Arrays.asList(contacts).subList(0, Math.min(max, contacts.length));
+        }
+        // Fewer than three characters have no trigrams; treat them as a word prefix
+        return prefix || q.length() < GRAM ? prefixSearch(q.split(" "), max) : substringSearch(q, max);
+    }
+
+    private List<Contact> substringSearch(String q, int max) {
+        List<int[]> postings = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            int[] posting = grams.get(q.substring(i, i + GRAM));
+            if (posting == null) return List.of();
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(p -> p.length));
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(RANK.reversed());
+        for (int ordinal : intersect(postings)) {
+            int score = 0;
+            for (int f = 0; f < WEIGHTS.length; f++) {
+                int at = fields[ordinal][f].indexOf(q);
+                if (at < 0) continue;
+                // Whole field beats start of a word beats the middle of one
+                int quality = at == 0 ? 3 : fields[ordinal][f].charAt(at - 1) == ' ' ? 2 : 1;
+                score += WEIGHTS[f] * quality;
+            }
+            if (score > 0) offer(top, new Scored(ordinal, score), max);
+        }
+        return drain(top);
+    }
+
+    private List<Contact> prefixSearch(String[] queryWords, int max) {
+        BitSet matches = null;
+        for (String word : queryWords) {
+            BitSet any = new BitSet(contacts.length);
+            for (int[] posting : tokens.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                for (int ordinal : posting) any.set(ordinal);
+            }
+            if (matches == null) matches = any; else matches.and(any);
+            if (matches.isEmpty()) return List.of();
+        }
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(RANK.reversed());
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            int score = 0;
+            for (String word : queryWords) {
+                score += bestPrefixScore(words[ordinal], word);
+            }
+            offer(top, new Scored(ordinal, score), max);
+        }
+        return drain(top);
+    }
+
+    // An exact word counts double a word it merely starts
+    private static int bestPrefixScore(String[][] fieldWords, String word) {
+        int best = 0;
+        for (int f = 0; f < WEIGHTS.length; f++) {
+            for (String token : fieldWords[f]) {
+                if (token.startsWith(word)) {
+                    best = Math.max(best, WEIGHTS[f] * (token.length() == word.length() ? 2 : 1));
+                }
+            }
+        }
+        return best;
+    }
+
+    // Keeps the best `max` entries; the queue head is the worst of them
+    private static void offer(PriorityQueue<Scored> top, Scored candidate, int max) {
+        if (top.size() < max) {
+            top.add(candidate);
+        } else if (RANK.compare(candidate, top.peek()) < 0) {
+            top.poll();
+            top.add(candidate);
+        }
+    }
+
+    private List<Contact> drain(PriorityQueue<Scored> top) {
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(RANK);
+        return ranked.stream().map(s -> contacts[s.ordinal()]).toList();
+    }
+
+    // Postings are ascending, so a merge from the shortest list keeps this linear
+    private static int[] intersect(List<int[]> postings) {
+        int[] result = postings.get(0);
+        for (int p = 1; p < postings.size() && result.length > 0; p++) {
+            int[] other = postings.get(p);
+            int[] next = new int[Math.min(result.length, other.length)];
+            int n = 0;
+            for (int i = 0, j = 0; i < result.length && j < other.length; ) {
+                if (result[i] == other[j]) {
+                    next[n++] = result[i];
+                    i++;
+                    j++;
+                } else if (result[i] < other[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            result = Arrays.copyOf(next, n);
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        if (value == null) return "";
+        return value.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static void post(Map<String, List<Integer>> index, String key, int ordinal) {
+        List<Integer> posting = index.computeIfAbsent(key, k -> new ArrayList<>());
+        if (posting.isEmpty() || posting.get(posting.size() - 1) != ordinal) {
+            posting.add(ordinal);
+        }
+    }
+
+    private static <M extends Map<String, int[]>> M toArrays(M target, Map<String, List<Integer>> source) {
+        source.forEach((key, posting) -> target.put(key, posting.stream().mapToInt(Integer::intValue).toArray()));
+        return target;
+    }
+}
@@ -2,11 +2,16 @@ package com.mamadou.hospital_management_system.service;
 
 import com.mamadou.hospital_management_system.dto.ContactRequest;
 import com.mamadou.hospital_management_system.dto.MessageResponse;
+import com.mamadou.hospital_management_system.event.ContactChangedEvent;
 import com.mamadou.hospital_management_system.model.Contact;
 import com.mamadou.hospital_management_system.repository.ContactRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
 
@@ -14,6 +19,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ContactService {
     private final ContactRepository contactRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Swapped whole on every change, so searches never see a half-built index
+    private volatile ContactSearchIndex searchIndex = ContactSearchIndex.build(List.of());
 
     public List<Contact> getAllContacts() {
         return contactRepository.findAll();
@@ -29,6 +38,7 @@ public class ContactService {
         Contact contact = new Contact();
         mapRequestToEntity(request, contact);
         contactRepository.save(contact);
+        eventPublisher.publishEvent(new ContactChangedEvent(contact.getId()));
         return new MessageResponse("Contact added successfully");
     }
 
@@ -38,6 +48,7 @@ public class ContactService {
                 .orElseThrow(() -> new RuntimeException("Contact not found"));
         mapRequestToEntity(request, contact);
         contactRepository.save(contact);
+        eventPublisher.publishEvent(new ContactChangedEvent(id));
         return new MessageResponse("Contact updated successfully");
     }
 
@@ -47,11 +58,25 @@ public class ContactService {
             throw new RuntimeException("Contact not found");
         }
         contactRepository.deleteById(id);
+        eventPublisher.publishEvent(new ContactChangedEvent(id));
         return new MessageResponse("Contact deleted successfully");
     }
 
-    public List<Contact> searchContacts(String query) {
-        return contactRepository.findByNameContainingIgnoreCaseOrRoleContainingIgnoreCase(query, query);
+    // Served from the in-memory index; the directory is searched on every keystroke
+    public List<Contact> searchContacts(String query, boolean prefix, int limit) {
+        return searchIndex.search(query, prefix, limit);
+    }
+
+    // The directory is small enough to re-index whole once a change has committed. Synchronized so an
+    // older read can never be swapped in after a newer one.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuildSearchIndex() {
+        searchIndex = ContactSearchIndex.build(contactRepository.findAll());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContactChanged(ContactChangedEvent event) {
+        rebuildSearchIndex();
     }
 
     private void mapRequestToEntity(ContactRequest request, Contact contact) {
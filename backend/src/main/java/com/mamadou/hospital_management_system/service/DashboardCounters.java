@@ -0,0 +1,178 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.event.AppointmentChangedEvent;
+import com.mamadou.hospital_management_system.event.DoctorChangedEvent;
+import com.mamadou.hospital_management_system.event.PatientChangedEvent;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
+import com.mamadou.hospital_management_system.repository.DoctorRepository;
+import com.mamadou.hospital_management_system.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+// Dashboard headline numbers kept in memory. Seeded from the database at startup, moved by committed
+// domain events and periodically reconciled against the database to correct any drift.
+// Readers get an immutable snapshot from a single volatile read.
+//
+// A reconcile reads every count from one database snapshot. Deltas applied while it runs are also logged
+// and replayed on top of the fresh counts, so changes that commit during the reads are neither lost nor
+// overwritten.
+@Component
+@RequiredArgsConstructor
+public class DashboardCounters {
+
+    public record Snapshot(long totalDoctors, long activeDoctors,
+                           long totalPatients, long inpatients,
+                           long totalAppointments, Map<BookingStatus, Long> appointmentsByStatus) {
+
+        public long appointments(BookingStatus status) {
+            return appointmentsByStatus.getOrDefault(status, 0L);
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, Map.of());
+
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(EMPTY);
+    private volatile boolean seeded;
+    // Deltas applied since the running reconcile began, null when none is running. Guarded by deltaLock.
+    private List<UnaryOperator<Snapshot>> replay;
+    private final Object deltaLock = new Object();
+    private final Object reconcileLock = new Object();
+
+    public Snapshot snapshot() {
+        if (!seeded) {
+            synchronized (reconcileLock) {
+                if (!seeded) reconcile();
+            }
+        }
+        return current.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${spring.application.dashboard.reconcile-millis:300000}",
+            initialDelayString = "${spring.application.dashboard.reconcile-millis:300000}")
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            synchronized (deltaLock) {
+                replay = new ArrayList<>();
+            }
+            try {
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setReadOnly(true);
+                transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+                Snapshot counted = transaction.execute(status -> count());
+                synchronized (deltaLock) {
+                    Snapshot next = counted;
+                    for (UnaryOperator<Snapshot> delta : replay) {
+                        next = delta.apply(next);
+                    }
+                    current.set(next);
+                    seeded = true;
+                }
+            } finally {
+                synchronized (deltaLock) {
+                    replay = null;
+                }
+            }
+        }
+    }
+
+    private Snapshot count() {
+        long[] doctors = countDoctors();
+
+        long totalPatients = 0;
+        long inpatients = 0;
+        for (Object[] row : patientRepository.countGroupedByStatus()) {
+            long count = (Long) row[1];
+            totalPatients += count;
+            if ("Inpatient".equals(row[0])) inpatients = count;
+        }
+
+        long totalAppointments = 0;
+        Map<BookingStatus, Long> byStatus = new EnumMap<>(BookingStatus.class);
+        for (Object[] row : appointmentRepository.countGroupedByStatus()) {
+            long count = (Long) row[1];
+            totalAppointments += count;
+            if (row[0] != null) byStatus.put((BookingStatus) row[0], count);
+        }
+
+        return new Snapshot(doctors[0], doctors[1], totalPatients, inpatients,
+                totalAppointments, Collections.unmodifiableMap(byStatus));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        update(s -> {
+            Map<BookingStatus, Long> byStatus = new EnumMap<>(BookingStatus.class);
+            byStatus.putAll(s.appointmentsByStatus());
+            if (event.previousStatus() != null) byStatus.merge(event.previousStatus(), -1L, (a, b) -> a + b == 0 ? null : a + b);
+            if (event.status() != null) byStatus.merge(event.status(), 1L, Long::sum);
+            long total = s.totalAppointments() + (event.previousStatus() == null ? 1 : 0);
+            return new Snapshot(s.totalDoctors(), s.activeDoctors(), s.totalPatients(), s.inpatients(),
+                    total, Collections.unmodifiableMap(byStatus));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        long totalDelta = switch (event.kind()) {
+            case CREATED -> 1;
+            case DELETED -> -1;
+            case UPDATED -> 0;
+        };
+        long inpatientDelta = ("Inpatient".equals(event.status()) ? 1 : 0) - ("Inpatient".equals(event.previousStatus()) ? 1 : 0);
+        update(s -> new Snapshot(s.totalDoctors(), s.activeDoctors(), s.totalPatients() + totalDelta,
+                s.inpatients() + inpatientDelta, s.totalAppointments(), s.appointmentsByStatus()));
+    }
+
+    // Doctor changes carry no before/after state and are rare, so the two doctor numbers are re-read
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.doctorId() == null) return;
+        long[] doctors = countDoctors();
+        update(s -> new Snapshot(doctors[0], doctors[1], s.totalPatients(), s.inpatients(),
+                s.totalAppointments(), s.appointmentsByStatus()));
+    }
+
+    // [total, available]
+    private long[] countDoctors() {
+        long[] counts = new long[2];
+        for (Object[] row : doctorRepository.countGroupedByAvailability()) {
+            long count = (Long) row[1];
+            counts[0] += count;
+            if (Boolean.TRUE.equals(row[0])) counts[1] = count;
+        }
+        return counts;
+    }
+
+    private void update(UnaryOperator<Snapshot> change) {
+        synchronized (deltaLock) {
+            if (seeded) {
+                current.updateAndGet(change);
+            }
+            if (replay != null) {
+                replay.add(change);
+            }
+        }
+    }
+}
@@ -5,10 +5,12 @@ import com.mamadou.hospital_management_system.enums.BookingStatus;
 import com.mamadou.hospital_management_system.model.Patient;
 import com.mamadou.hospital_management_system.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,46 +18,34 @@ import java.util.stream.Collectors;
 public class DashboardService {
 
     private final PatientRepository patientRepository;
-    private final AppointmentRepository appointmentRepository;
-    private final DoctorRepository doctorRepository;
     private final DepartmentRepository departmentRepository;
     private final RecordRepository recordRepository;
+    private final ArrivalRollupService arrivalRollupService;
+    private final DashboardCounters dashboardCounters;
+    private final SingleFlightCache singleFlightCache;
 
+    private static final String CACHE_KEY = "dashboard";
+
+    // Screens opening together share one computation; see SingleFlightCache
     public DashboardResponse getDashboardData() {
-        // Doctor Stats
-        long totalDoctors = doctorRepository.count();
-        long activeDoctors = doctorRepository.countByIsAvailable(true);
-        long shiftOngoing = 2; // Mock or calculate from schedules
+        return singleFlightCache.get(CACHE_KEY, this::loadDashboardData);
+    }
 
-        // Patient Stats
-        long totalPatients = patientRepository.count();
-        long inpatients = patientRepository.countByStatus("Inpatient");
+    private DashboardResponse loadDashboardData() {
+        // Headline counters come from the in-memory snapshot, not from the database
+        DashboardCounters.Snapshot counters = dashboardCounters.snapshot();
+        long shiftOngoing = 2; // Mock or calculate from schedules
         double growth = 24.0; // Mock
 
-        // Appointment Stats
-        long totalAppointments = appointmentRepository.count();
-        long upcoming = appointmentRepository.countByStatus(BookingStatus.BOOKED);
-        long completed = appointmentRepository.countByStatus(BookingStatus.COMPLETED);
+        // Arrival Data (last 8 months, summed from the daily arrival rows)
+        List<DashboardResponse.ArrivalData> arrivalData = arrivalRollupService.getMonthlyArrivals(8);
 
-        // Arrival Data (Mocking last 8 months)
-        List<DashboardResponse.ArrivalData> arrivalData = List.of(
-            new DashboardResponse.ArrivalData("Jan", 15, 12),
-            new DashboardResponse.ArrivalData("Feb", 22, 18),
-            new DashboardResponse.ArrivalData("Mar", 25, 20),
-            new DashboardResponse.ArrivalData("Apr", 35, 21),
-            new DashboardResponse.ArrivalData("May", 28, 19),
-            new DashboardResponse.ArrivalData("Jun", 22, 17),
-            new DashboardResponse.ArrivalData("Jul", 26, 20),
-            new DashboardResponse.ArrivalData("Aug", 24, 18)
-        );
-
-        
         String[] colors = {"#056B3A", "#F8C244", "#FF7D7D", "#3B82F6", "#8B5CF6"};
-        List<DashboardResponse.DepartmentData> departmentData = departmentRepository.findAll().stream()
-            .map(dept -> {
-                long patientCount = appointmentRepository.countDistinctPatientByDoctorDepartment(dept);
-                int colorIndex = (dept.getId() - 1) % colors.length;
-                return new DashboardResponse.DepartmentData(dept.getName(), patientCount, colors[colorIndex]);
+        List<DashboardResponse.DepartmentData> departmentData = departmentRepository.countDistinctPatientsPerDepartment().stream()
+            .map(row -> {
+                short id = (Short) row[0];
+                int colorIndex = Math.floorMod(id - 1, colors.length);
+                return new DashboardResponse.DepartmentData((String) row[1], (Long) row[2], colors[colorIndex]);
             })
             .collect(Collectors.toList());
 
@@ -70,22 +60,30 @@ public class DashboardService {
         }
 
         // Recent Patients
-        List<Patient> recentPatientsRaw = patientRepository.findTop5ByOrderByIdDesc();
+        List<Patient> recentPatientsRaw = patientRepository.findRecentWithUser(Limit.of(5));
+        Map<Long, String> firstDiagnosis = new HashMap<>();
+        if (!recentPatientsRaw.isEmpty()) {
+            List<Long> ids = recentPatientsRaw.stream().map(Patient::getId).collect(Collectors.toList());
+            for (Object[] row : recordRepository.findDiagnosesByPatientIds(ids)) {
+                firstDiagnosis.putIfAbsent((Long) row[0], (String) row[1]);
+            }
+        }
         List<DashboardResponse.PatientInfo> recentPatients = recentPatientsRaw.stream()
             .map(p -> new DashboardResponse.PatientInfo(
                 p.getId(),
                 p.getUser() != null ? p.getUser().getFirstName() + " " + p.getUser().getLastName() : "Unknown",
                 p.getAge(),
-                p.getMedicalRecords() != null && !p.getMedicalRecords().isEmpty() ? p.getMedicalRecords().get(0).getDiagnosis() : "N/A",
+                firstDiagnosis.getOrDefault(p.getId(), "N/A"),
                 p.getStatus() != null ? p.getStatus() : "Active",
                 "20" + (int)(Math.random() * 9 + 1) // Mock room
             ))
             .collect(Collectors.toList());
 
         return new DashboardResponse(
-            new DashboardResponse.DoctorStats(totalDoctors, activeDoctors, shiftOngoing),
-            new DashboardResponse.PatientStats(totalPatients, growth, inpatients),
-            new DashboardResponse.AppointmentStats(totalAppointments, upcoming, completed),
+            new DashboardResponse.DoctorStats(counters.totalDoctors(), counters.activeDoctors(), shiftOngoing),
+            new DashboardResponse.PatientStats(counters.totalPatients(), growth, counters.inpatients()),
+            new DashboardResponse.AppointmentStats(counters.totalAppointments(),
+                    counters.appointments(BookingStatus.BOOKED), counters.appointments(BookingStatus.COMPLETED)),
             arrivalData,
             departmentData,
             recentPatients
@@ -3,20 +3,33 @@ package com.mamadou.hospital_management_system.service;
 import com.mamadou.hospital_management_system.dto.AddDepartmentRequest;
 import com.mamadou.hospital_management_system.dto.DepartmentDetailResponse;
 import com.mamadou.hospital_management_system.dto.MessageResponse;
+import com.mamadou.hospital_management_system.event.DepartmentChangedEvent;
+import com.mamadou.hospital_management_system.event.DoctorChangedEvent;
 import com.mamadou.hospital_management_system.model.Department;
 import com.mamadou.hospital_management_system.repository.DepartmentRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class DepartmentService {
     private final DepartmentRepository departmentRepository;
+    private final DoctorDirectoryCache doctorDirectoryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlightCache singleFlightCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final String CACHE_KEY = "departments";
 
     public MessageResponse addDepartment(AddDepartmentRequest request) {
         Department department = new Department();
@@ -25,6 +38,7 @@ public class DepartmentService {
         department.setHeadOfDepartment(request.headOfDepartment());
         department.setIcon(request.icon());
         departmentRepository.save(department);
+        eventPublisher.publishEvent(new DepartmentChangedEvent(department.getId()));
         return new MessageResponse(request.name()+" Department Added");
     }
     public MessageResponse updateDepartment(AddDepartmentRequest request, short id) {
@@ -35,6 +49,8 @@ public class DepartmentService {
         department.setHeadOfDepartment(request.headOfDepartment());
         department.setIcon(request.icon());
         departmentRepository.save(department);
+        doctorDirectoryCache.invalidate();
+        eventPublisher.publishEvent(new DoctorChangedEvent(null));
         return new MessageResponse(request.name()+" Department Updated");
     }
     public MessageResponse deleteDepartment(short id) {
@@ -43,46 +59,83 @@ public class DepartmentService {
             return new MessageResponse("Department Not Found");
         }
         departmentRepository.deleteById(id);
+        doctorDirectoryCache.invalidate();
+        eventPublisher.publishEvent(new DoctorChangedEvent(null));
         return new MessageResponse("Department Deleted");
     }
+    // Doctor changes also show up in the department list
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        singleFlightCache.invalidate(CACHE_KEY);
+    }
+
+    // After commit, so a reload cannot cache the list without the new department
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentChanged(DepartmentChangedEvent event) {
+        singleFlightCache.invalidate(CACHE_KEY);
+    }
+
+    // Only the leader opens a transaction; followers wait without holding a connection
+    @Transactional(Transactional.TxType.SUPPORTS)
     public List<DepartmentDetailResponse> findAllDepartments() {
-        return departmentRepository.findAll().stream()
-            .map(d -> new DepartmentDetailResponse(
-                d.getId(),
-                d.getName(),
-                d.getDescription(),
-                d.getIcon(),
-                d.getHeadOfDepartment(),
-                d.getDoctors() != null ? d.getDoctors().size() : 0,
-                150, // Mock patient count
-                d.getDoctors() != null ? d.getDoctors().stream()
-                    .map(doc -> new DepartmentDetailResponse.DoctorInfo(
-                        doc.getId(),
-                        doc.getUser().getFirstName() + " " + doc.getUser().getLastName(),
-                        doc.getSpecialty()
-                    ))
-                    .collect(Collectors.toList()) : List.of()
-            ))
-            .collect(Collectors.toList());
+        return singleFlightCache.get(CACHE_KEY, () -> transactionTemplate.execute(status -> loadDepartments()));
+    }
+
+    // Two statements regardless of department or doctor count: one row per doctor, one grouped count
+    private List<DepartmentDetailResponse> loadDepartments() {
+        Map<Short, Long> patientCounts = new HashMap<>();
+        for (Object[] row : departmentRepository.countDistinctPatientsPerDepartment()) {
+            patientCounts.put((Short) row[0], (Long) row[2]);
+        }
+        return assemble(departmentRepository.findAllWithDoctorSummaries(), patientCounts);
     }
 
     public DepartmentDetailResponse getDepartmentDetailById(short id) {
-        Department d = departmentRepository.findById(id).orElseThrow(() -> new RuntimeException("Department not found"));
+        Map<Short, Long> patientCounts = new HashMap<>();
+        for (Object[] row : departmentRepository.countDistinctPatientsByDepartmentId(id)) {
+            patientCounts.put((Short) row[0], (Long) row[1]);
+        }
+        List<DepartmentDetailResponse> departments =
+                assemble(departmentRepository.findWithDoctorSummariesById(id), patientCounts);
+        if (departments.isEmpty()) {
+            throw new RuntimeException("Department not found");
+        }
+        return departments.get(0);
+    }
+
+    // Rows are ordered by department, so each department's doctors are contiguous
+    private List<DepartmentDetailResponse> assemble(List<Object[]> rows, Map<Short, Long> patientCounts) {
+        List<DepartmentDetailResponse> departments = new ArrayList<>();
+        Object[] current = null;
+        List<DepartmentDetailResponse.DoctorInfo> doctors = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (current != null && !current[0].equals(row[0])) {
+                departments.add(toResponse(current, doctors, patientCounts));
+                doctors = new ArrayList<>();
+            }
+            current = row;
+            if (row[5] != null) {
+                doctors.add(new DepartmentDetailResponse.DoctorInfo(
+                        (Integer) row[5], row[6] + " " + row[7], (String) row[8]));
+            }
+        }
+        if (current != null) {
+            departments.add(toResponse(current, doctors, patientCounts));
+        }
+        return departments;
+    }
+
+    private DepartmentDetailResponse toResponse(Object[] row, List<DepartmentDetailResponse.DoctorInfo> doctors,
+                                                Map<Short, Long> patientCounts) {
         return new DepartmentDetailResponse(
-            d.getId(),
-            d.getName(),
-            d.getDescription(),
-            d.getIcon(),
-            d.getHeadOfDepartment(),
-            d.getDoctors() != null ? d.getDoctors().size() : 0,
-            150,
-            d.getDoctors() != null ? d.getDoctors().stream()
-                .map(doc -> new DepartmentDetailResponse.DoctorInfo(
-                    doc.getId(),
-                    doc.getUser().getFirstName() + " " + doc.getUser().getLastName(),
-                    doc.getSpecialty()
-                ))
-                .collect(Collectors.toList()) : List.of()
+            (Short) row[0],
+            (String) row[1],
+            (String) row[2],
+            (String) row[3],
+            (String) row[4],
+            doctors.size(),
+            patientCounts.getOrDefault((Short) row[0], 0L).intValue(),
+            doctors
         );
     }
 }
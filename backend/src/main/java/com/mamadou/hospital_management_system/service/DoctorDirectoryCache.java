@@ -0,0 +1,63 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.DoctorDetailResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// In-memory doctor directory. The full list is loaded once; filtered views are cached per
+// (department, availability) and everything is dropped whenever a doctor or department changes.
+@Component
+public class DoctorDirectoryCache {
+
+    private record Key(String department, Boolean available) {}
+
+    private static final Key ALL = new Key(null, null);
+
+    private final Map<Key, List<DoctorDetailResponse>> views = new ConcurrentHashMap<>();
+
+    public List<DoctorDetailResponse> get(String department, Boolean available, Supplier<List<DoctorDetailResponse>> loader) {
+        List<DoctorDetailResponse> cached = views.get(new Key(department, available));
+        if (cached != null) {
+            return cached;
+        }
+
+        List<DoctorDetailResponse> all = views.computeIfAbsent(ALL, k -> List.copyOf(loader.get()));
+        if (department == null && available == null) {
+            return all;
+        }
+
+        // Views are only cached for departments that exist, so arbitrary filter values cannot grow the map
+        String known = department == null ? null : all.stream()
+                .map(DoctorDetailResponse::departmentName)
+                .filter(department::equalsIgnoreCase)
+                .findFirst()
+                .orElse(null);
+        if (department != null && known == null) {
+            return List.of();
+        }
+        return views.computeIfAbsent(new Key(known, available), k -> all.stream()
+                .filter(d -> known == null || known.equals(d.departmentName()))
+                .filter(d -> available == null || d.isAvailable() == available)
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    // Clears now and again after commit, so a read racing the write cannot re-cache stale rows
+    public void invalidate() {
+        views.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    views.clear();
+                }
+            });
+        }
+    }
+}
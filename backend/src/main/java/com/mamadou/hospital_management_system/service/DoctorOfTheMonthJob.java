@@ -0,0 +1,98 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.model.DoctorMonthlyStats;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
+import com.mamadou.hospital_management_system.repository.DoctorMonthlyStatsRepository;
+import com.mamadou.hospital_management_system.repository.DoctorRepository;
+import com.mamadou.hospital_management_system.repository.RecordRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class DoctorOfTheMonthJob {
+
+    private final AppointmentRepository appointmentRepository;
+    private final RecordRepository recordRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorMonthlyStatsRepository doctorMonthlyStatsRepository;
+
+    // Runs early on the 1st and ranks the month that just ended
+    @Scheduled(cron = "${spring.application.jobs.doctor-of-the-month.cron:0 0 2 1 * *}")
+    @Transactional
+    public void rankPreviousMonth() {
+        rank(YearMonth.now().minusMonths(1));
+    }
+
+    // Catches up if the application was down when the job was due
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rankPreviousMonthIfMissing() {
+        YearMonth previous = YearMonth.now().minusMonths(1);
+        if (!doctorMonthlyStatsRepository.existsByMonth(previous.atDay(1))) {
+            rank(previous);
+        }
+    }
+
+    @Transactional
+    public void rank(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        Map<Integer, DoctorMonthlyStats> stats = new HashMap<>();
+        for (Object[] row : appointmentRepository.summarizeByDoctor(from.atStartOfDay(), to.atStartOfDay())) {
+            DoctorMonthlyStats s = statsFor(stats, (Integer) row[0], from);
+            s.setTotalAppointments(((Number) row[1]).longValue());
+            s.setCompletedAppointments(((Number) row[2]).longValue());
+            s.setNoShows(((Number) row[3]).longValue());
+            s.setDistinctPatients(((Number) row[4]).longValue());
+        }
+        for (Object[] row : recordRepository.countByDoctorBetween(from, to)) {
+            statsFor(stats, (Integer) row[0], from).setRecordsIssued(((Number) row[1]).longValue());
+        }
+
+        List<Map.Entry<Integer, DoctorMonthlyStats>> entries = new ArrayList<>(stats.entrySet());
+        entries.forEach(e -> e.getValue().setScore(score(e.getValue())));
+        entries.sort(Comparator.<Map.Entry<Integer, DoctorMonthlyStats>>comparingDouble(e -> e.getValue().getScore()).reversed()
+                .thenComparing(Map.Entry::getKey));
+        List<DoctorMonthlyStats> ranked = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).getValue().setRanking(i + 1);
+            ranked.add(entries.get(i).getValue());
+        }
+
+        doctorMonthlyStatsRepository.deleteByMonth(from);
+        doctorMonthlyStatsRepository.saveAll(ranked);
+
+        if (!entries.isEmpty()) {
+            int winnerId = entries.get(0).getKey();
+            doctorRepository.clearDoctorOfTheMonthExcept(winnerId);
+            doctorRepository.markDoctorOfTheMonth(winnerId);
+        }
+    }
+
+    // Completed visits and breadth of patients count most; no-shows pull the score down
+    private double score(DoctorMonthlyStats s) {
+        return s.getCompletedAppointments() * 2.0
+                + s.getDistinctPatients()
+                + s.getRecordsIssued() * 0.5
+                - s.getNoShows() * 2.0;
+    }
+
+    private DoctorMonthlyStats statsFor(Map<Integer, DoctorMonthlyStats> stats, int doctorId, LocalDate month) {
+        return stats.computeIfAbsent(doctorId, id -> {
+            DoctorMonthlyStats s = new DoctorMonthlyStats();
+            s.setDoctor(doctorRepository.getReferenceById(id));
+            s.setMonth(month);
+            return s;
+        });
+    }
+}
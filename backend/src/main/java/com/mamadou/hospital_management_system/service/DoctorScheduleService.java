@@ -1,15 +1,22 @@
 package com.mamadou.hospital_management_system.service;
 
+import com.mamadou.hospital_management_system.dto.BulkScheduleResponse;
 import com.mamadou.hospital_management_system.dto.DoctorScheduleDTO;
+import com.mamadou.hospital_management_system.event.DoctorChangedEvent;
 import com.mamadou.hospital_management_system.model.Doctor;
 import com.mamadou.hospital_management_system.model.DoctorSchedule;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
 import com.mamadou.hospital_management_system.repository.DoctorRepository;
 import com.mamadou.hospital_management_system.repository.DoctorScheduleRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
-import java.util.List;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,26 +26,148 @@ public class DoctorScheduleService {
 
     private final DoctorScheduleRepository doctorScheduleRepository;
     private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    // Add a schedule
+    private record DoctorDay(int doctorId, DayOfWeek dayOfWeek) {}
+
+    // Add a schedule, rejecting overlaps and folding it into adjacent ranges of the same day
     public DoctorScheduleDTO addSchedule(DoctorScheduleDTO dto) {
-        Doctor doctor = doctorRepository.findById(dto.doctorId())
+        Doctor doctor = doctorRepository.findByIdForUpdate(dto.doctorId())
                 .orElseThrow(() -> new RuntimeException("Doctor not found"));
 
+        TreeMap<LocalTime, DoctorSchedule> day = byStart(doctorScheduleRepository.findByDoctorIdAndDayOfWeekForUpdate(doctor.getId(), dto.dayOfWeek()));
+        Map<DoctorSchedule, DoctorSchedule> absorbed = new IdentityHashMap<>();
+        DoctorSchedule saved = doctorScheduleRepository.save(place(day, doctor, dto, absorbed));
+        removeAbsorbed(absorbed);
+        eventPublisher.publishEvent(new DoctorChangedEvent(doctor.getId()));
+
+        return toDto(saved);
+    }
+
+    // Validates a batch (typically a whole week for many doctors) against stored schedules and against
+    // itself, then saves all of it in this transaction, or nothing if any entry conflicts
+    public BulkScheduleResponse addSchedules(List<DoctorScheduleDTO> dtos) {
+        Set<Integer> doctorIds = dtos.stream().map(DoctorScheduleDTO::doctorId).collect(Collectors.toSet());
+        Map<Integer, Doctor> doctors = doctorRepository.findAllByIdForUpdate(doctorIds).stream()
+                .collect(Collectors.toMap(Doctor::getId, d -> d));
+
+        Map<DoctorDay, TreeMap<LocalTime, DoctorSchedule>> days = new HashMap<>();
+        for (DoctorSchedule existing : doctorScheduleRepository.findByDoctorIdsForUpdate(doctors.keySet())) {
+            days.computeIfAbsent(new DoctorDay(existing.getDoctor().getId(), existing.getDayOfWeek()), k -> new TreeMap<>())
+                    .put(existing.getStartTime(), existing);
+        }
+
+        List<String> errors = new ArrayList<>();
+        Set<DoctorSchedule> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<DoctorSchedule, DoctorSchedule> absorbed = new IdentityHashMap<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            DoctorScheduleDTO dto = dtos.get(i);
+            Doctor doctor = doctors.get(dto.doctorId());
+            if (doctor == null) {
+                errors.add("#" + i + ": Doctor not found");
+                continue;
+            }
+            try {
+                changed.add(place(days.computeIfAbsent(new DoctorDay(dto.doctorId(), dto.dayOfWeek()), k -> new TreeMap<>()), doctor, dto, absorbed));
+            } catch (RuntimeException e) {
+                errors.add("#" + i + ": " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            // Merges may already have stretched managed rows; roll them back with the rest
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new BulkScheduleResponse(List.of(), errors);
+        }
+
+        changed.removeAll(absorbed.keySet());
+        List<DoctorSchedule> saved = doctorScheduleRepository.saveAll(changed);
+        removeAbsorbed(absorbed);
+        doctorIds.forEach(id -> eventPublisher.publishEvent(new DoctorChangedEvent(id)));
+        return new BulkScheduleResponse(saved.stream().map(this::toDto).toList(), List.of());
+    }
+
+    // The day map is keyed by start time, so the only candidates for overlap are the floor and
+    // ceiling entries around the new start. Returns the row to save and keeps the map current; a
+    // neighbour folded into another row is recorded in absorbed against the row that took it over.
+    private DoctorSchedule place(TreeMap<LocalTime, DoctorSchedule> day, Doctor doctor, DoctorScheduleDTO dto,
+                                 Map<DoctorSchedule, DoctorSchedule> absorbed) {
+        if (dto.dayOfWeek() == null || dto.startTime() == null || dto.endTime() == null) {
+            throw new RuntimeException("Day, start time and end time are required");
+        }
+        if (!dto.startTime().isBefore(dto.endTime())) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+
+        Map.Entry<LocalTime, DoctorSchedule> before = day.floorEntry(dto.startTime());
+        Map.Entry<LocalTime, DoctorSchedule> after = day.ceilingEntry(dto.startTime());
+        for (Map.Entry<LocalTime, DoctorSchedule> neighbour : Arrays.asList(before, after)) {
+            if (neighbour == null) continue;
+            DoctorSchedule other = neighbour.getValue();
+            if (other.getStartTime().isBefore(dto.endTime()) && dto.startTime().isBefore(other.getEndTime())) {
+                throw new RuntimeException("Overlaps existing schedule " + dto.dayOfWeek() + " "
+                        + other.getStartTime() + "-" + other.getEndTime());
+            }
+        }
+        boolean touchesBefore = before != null && before.getValue().getEndTime().equals(dto.startTime());
+        boolean touchesAfter = after != null && after.getValue().getStartTime().equals(dto.endTime());
+
+        if (touchesBefore) {
+            DoctorSchedule merged = before.getValue();
+            merged.setEndTime(dto.endTime());
+            merged.setAvailableSlots(merged.getAvailableSlots() + dto.availableSlots());
+            if (touchesAfter) {
+                DoctorSchedule next = day.remove(after.getKey());
+                merged.setEndTime(next.getEndTime());
+                merged.setAvailableSlots(merged.getAvailableSlots() + next.getAvailableSlots());
+                absorbed.put(next, merged);
+            }
+            return merged;
+        }
+        if (touchesAfter) {
+            DoctorSchedule merged = day.remove(after.getKey());
+            merged.setStartTime(dto.startTime());
+            merged.setAvailableSlots(merged.getAvailableSlots() + dto.availableSlots());
+            day.put(merged.getStartTime(), merged);
+            return merged;
+        }
+
         DoctorSchedule schedule = new DoctorSchedule();
         schedule.setDoctor(doctor);
         schedule.setDayOfWeek(dto.dayOfWeek());
         schedule.setStartTime(dto.startTime());
         schedule.setEndTime(dto.endTime());
+        schedule.setAvailableSlots(dto.availableSlots());
+        day.put(schedule.getStartTime(), schedule);
+        return schedule;
+    }
+
+    // Moves appointments off stored rows that were merged away, then deletes them. A batch can fold a
+    // row into one that is itself folded later, so follow the chain to the row that survived.
+    private void removeAbsorbed(Map<DoctorSchedule, DoctorSchedule> absorbed) {
+        absorbed.forEach((gone, into) -> {
+            if (gone.getId() == null) return;
+            while (absorbed.containsKey(into)) {
+                into = absorbed.get(into);
+            }
+            appointmentRepository.moveToSchedule(gone, into);
+            doctorScheduleRepository.delete(gone);
+        });
+    }
 
-        DoctorSchedule saved = doctorScheduleRepository.save(schedule);
+    private static TreeMap<LocalTime, DoctorSchedule> byStart(List<DoctorSchedule> schedules) {
+        TreeMap<LocalTime, DoctorSchedule> day = new TreeMap<>();
+        schedules.forEach(s -> day.put(s.getStartTime(), s));
+        return day;
+    }
 
+    private DoctorScheduleDTO toDto(DoctorSchedule s) {
         return new DoctorScheduleDTO(
-                saved.getDoctor().getId(),
-                saved.getAvailableSlots(),
-                saved.getDayOfWeek(),
-                saved.getStartTime(),
-                saved.getEndTime()
+                s.getDoctor().getId(),
+                s.getAvailableSlots(),
+                s.getDayOfWeek(),
+                s.getStartTime(),
+                s.getEndTime()
         );
     }
 
@@ -1,14 +1,22 @@
 package com.mamadou.hospital_management_system.service;
 
 import com.mamadou.hospital_management_system.dto.*;
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.event.DoctorChangedEvent;
 import com.mamadou.hospital_management_system.model.Department;
 import com.mamadou.hospital_management_system.model.Doctor;
+import com.mamadou.hospital_management_system.model.DoctorMonthlyStats;
 import com.mamadou.hospital_management_system.model.User;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
 import com.mamadou.hospital_management_system.repository.DepartmentRepository;
+import com.mamadou.hospital_management_system.repository.DoctorMonthlyStatsRepository;
 import com.mamadou.hospital_management_system.repository.DoctorRepository;
 import com.mamadou.hospital_management_system.repository.UserRepository;
+import com.mamadou.hospital_management_system.security.UserCache;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,9 +32,14 @@ import java.util.stream.Collectors;
 public class DoctorService {
 
     private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorMonthlyStatsRepository doctorMonthlyStatsRepository;
     private final DepartmentRepository departmentRepository;
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final DoctorDirectoryCache doctorDirectoryCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MessageResponse addDoctor(AddDoctorRequest addDoctorRequest) {
         User user = userRepository.findByEmail(addDoctorRequest.email()).orElse(null);
@@ -40,6 +53,7 @@ public class DoctorService {
             user.setBirthDate(java.time.LocalDate.of(1990, 1, 1)); // Default or add to request
             user.setRole(com.mamadou.hospital_management_system.enums.Role.DOCTOR);
             userRepository.save(user);
+            userCache.evict(user.getEmail());
         }
 
         Department department = departmentRepository.findByName(addDoctorRequest.department()).orElse(null);
@@ -56,6 +70,8 @@ public class DoctorService {
         doctor.setAvailable(true);
         doctor.setRating(5.0);
         doctorRepository.save(doctor);
+        doctorDirectoryCache.invalidate();
+        eventPublisher.publishEvent(new DoctorChangedEvent(doctor.getId()));
         return new MessageResponse("Doctor added successfully");
     }
 
@@ -75,26 +91,36 @@ public class DoctorService {
         }
 
         doctorRepository.save(doctor);
+        doctorDirectoryCache.invalidate();
+        eventPublisher.publishEvent(new DoctorChangedEvent(id));
         return new MessageResponse("Doctor updated successfully");
     }
 
     public MessageResponse deleteDoctorById(int id) {
+        doctorRepository.findById(id)
+                .filter(doctor -> doctor.getUser() != null)
+                .ifPresent(doctor -> userCache.evict(doctor.getUser().getEmail()));
         doctorRepository.deleteById(id);
+        doctorDirectoryCache.invalidate();
+        eventPublisher.publishEvent(new DoctorChangedEvent(id));
         return new MessageResponse("Doctor deleted");
     }
 
-    public DoctorDetailResponse getDoctorById(int id) {
-        Doctor doctor = doctorRepository.findById(id).orElseThrow(() -> new RuntimeException("Doctor not found"));
-        
-        List<DoctorDetailResponse.AppointmentDTO> appointments = doctor.getAppointments().stream()
-            .map(a -> new DoctorDetailResponse.AppointmentDTO(
-                a.getId(),
-                a.getPatient().getUser().getFirstName() + " " + a.getPatient().getUser().getLastName(),
-                a.getAppointmentDate().toString(),
-                a.getStatus().name(),
-                a.getReason()
+    public static final int DEFAULT_RECENT_APPOINTMENTS = 5;
+    public static final int MAX_RECENT_APPOINTMENTS = 50;
+
+    public DoctorDetailResponse getDoctorById(int id, int recent) {
+        Doctor doctor = doctorRepository.findWithUserAndDepartmentById(id).orElseThrow(() -> new RuntimeException("Doctor not found"));
+
+        Limit limit = Limit.of(Math.max(1, Math.min(recent, MAX_RECENT_APPOINTMENTS)));
+        List<DoctorDetailResponse.AppointmentDTO> appointments = appointmentRepository.findRecentByDoctorId(id, limit).stream()
+            .map(row -> new DoctorDetailResponse.AppointmentDTO(
+                (Long) row[0],
+                row[1] + " " + row[2],
+                String.valueOf(row[3]),
+                row[4] != null ? ((BookingStatus) row[4]).name() : null,
+                (String) row[5]
             ))
-            .limit(5)
             .collect(Collectors.toList());
 
         return new DoctorDetailResponse(
@@ -116,42 +142,41 @@ public class DoctorService {
     }
 
     public DoctorOfTheMonthResponse getDoctorOfTheMonth() {
-        Doctor doctor = doctorRepository.findFirstByIsDoctorOfTheMonthTrue()
-                .orElseGet(() -> doctorRepository.findAll().stream().findFirst()
-                        .orElseThrow(() -> new RuntimeException("No doctors found")));
-        
-        // Mocking some stats for now as requested by the frontend design
+        DoctorMonthlyStats winner = doctorMonthlyStatsRepository.findLatestWinner(Limit.of(1)).stream()
+                .findFirst()
+                .orElse(null);
+        if (winner == null) {
+            // No ranked month yet: fall back to the flagged doctor, or the first doctor, without metrics
+            Doctor doctor = doctorRepository.findFirstByIsDoctorOfTheMonthTrue()
+                    .or(doctorRepository::findFirstByOrderByIdAsc)
+                    .orElseThrow(() -> new RuntimeException("No doctors found"));
+            return new DoctorOfTheMonthResponse(
+                doctor.getId(),
+                doctor.getUser().getFirstName() + " " + doctor.getUser().getLastName(),
+                doctor.getSpecialty(),
+                doctor.getPhone(),
+                doctor.getUser().getEmail(),
+                0,
+                0,
+                0
+            );
+        }
+
+        Doctor doctor = winner.getDoctor();
+        long attended = winner.getTotalAppointments();
         return new DoctorOfTheMonthResponse(
             doctor.getId(),
             doctor.getUser().getFirstName() + " " + doctor.getUser().getLastName(),
             doctor.getSpecialty(),
             doctor.getPhone(),
             doctor.getUser().getEmail(),
-            31, // Mock performance %
-            27, // Mock attendance %
-            doctor.getAppointments() != null ? doctor.getAppointments().size() : 32 // Patients
+            attended > 0 ? (int) Math.round(100.0 * winner.getCompletedAppointments() / attended) : 0, // performance %
+            attended > 0 ? (int) Math.round(100.0 * (attended - winner.getNoShows()) / attended) : 0, // attendance %
+            (int) winner.getDistinctPatients()
         );
     }
 
-    public List<DoctorDetailResponse> findAllDoctors() {
-        return doctorRepository.findAll()
-            .stream()
-            .map(doctor -> new DoctorDetailResponse(
-                doctor.getId(),
-                doctor.getUser().getFirstName(),
-                doctor.getUser().getLastName(),
-                doctor.getUser().getEmail(),
-                doctor.getSpecialty(),
-                doctor.getDepartment() != null ? doctor.getDepartment().getName() : "General",
-                doctor.getPhone(),
-                doctor.getAbout(),
-                doctor.getRating(),
-                doctor.isAvailable(),
-                doctor.getExperienceYears(),
-                doctor.getPatientsCount(),
-                doctor.getWorkingHours(),
-                null
-            ))
-            .collect(Collectors.toList());
+    public List<DoctorDetailResponse> findAllDoctors(String department, Boolean available) {
+        return doctorDirectoryCache.get(department, available, doctorRepository::findDirectory);
     }
 }
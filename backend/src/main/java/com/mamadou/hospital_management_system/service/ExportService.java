@@ -0,0 +1,62 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.enums.ExportFormat;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
+import com.mamadou.hospital_management_system.repository.PatientRepository;
+import com.mamadou.hospital_management_system.repository.RecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final RecordRepository recordRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final String[] PATIENT_COLUMNS = {"id", "firstName", "lastName", "email", "gender", "bloodGroup",
+            "age", "weight", "height", "phone", "address", "status", "type", "createdAt"};
+    private static final String[] APPOINTMENT_COLUMNS = {"id", "patientId", "patientFirstName", "patientLastName",
+            "doctorId", "doctorFirstName", "doctorLastName", "appointmentDate", "visitType", "status", "reason"};
+    private static final String[] RECORD_COLUMNS = {"id", "patientId", "patientFirstName", "patientLastName",
+            "doctorId", "doctorFirstName", "doctorLastName", "diagnosis", "priority", "prescription", "notes",
+            "issueDate"};
+
+    public StreamingResponseBody exportPatients(ExportFormat format) {
+        return export(format, PATIENT_COLUMNS, patientRepository::streamExportRows);
+    }
+
+    public StreamingResponseBody exportAppointments(ExportFormat format) {
+        return export(format, APPOINTMENT_COLUMNS, appointmentRepository::streamExportRows);
+    }
+
+    public StreamingResponseBody exportRecords(ExportFormat format) {
+        return export(format, RECORD_COLUMNS, recordRepository::streamExportRows);
+    }
+
+    // The body runs on the MVC async executor after the controller returns. A read-only transaction holds the
+    // connection and its cursor open for the whole response, and rows are scalar projections, so nothing
+    // accumulates in the persistence context.
+    private StreamingResponseBody export(ExportFormat format, String[] columns, Supplier<Stream<Object[]>> rows) {
+        return out -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> stream = rows.get()) {
+                    ExportWriter.write(format, columns, stream.iterator(), out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+}
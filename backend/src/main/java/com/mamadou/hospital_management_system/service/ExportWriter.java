@@ -0,0 +1,110 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.mamadou.hospital_management_system.enums.ExportFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+// Writes export rows to a stream one at a time, so memory stays flat however many rows there are.
+// Rows are the Object[] projections the repositories return, in the same order as `columns`.
+public final class ExportWriter {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ExportWriter() {}
+
+    // Returns the number of rows written; the stream is flushed but left open for the caller
+    public static long write(ExportFormat format, String[] columns, Iterator<Object[]> rows, OutputStream out)
+            throws IOException {
+        return format == ExportFormat.CSV ? writeCsv(columns, rows, out) : writeNdjson(columns, rows, out);
+    }
+
+    private static long writeCsv(String[] columns, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writeCsvLine(writer, columns);
+        long count = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, rows.next());
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            if (values[i] == null) continue;
+            String cell = text(values[i]);
+            writeCsvCell(writer, values[i] instanceof Number ? cell : escapeFormula(cell));
+        }
+        writer.write("\r\n");
+    }
+
+    // Spreadsheets evaluate a cell starting with one of these as a formula; a leading quote keeps it text
+    private static String escapeFormula(String cell) {
+        return !cell.isEmpty() && "=+-@\t\r".indexOf(cell.charAt(0)) >= 0 ? "'" + cell : cell;
+    }
+
+    // RFC 4180: quote a cell holding a separator, quote or line break, doubling the quotes inside
+    private static void writeCsvCell(Writer writer, String cell) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < cell.length() && !quote; i++) {
+            char c = cell.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(cell);
+            return;
+        }
+        writer.write('"');
+        writer.write(cell.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static long writeNdjson(String[] columns, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = JSON.createGenerator(new BufferedOutputStream(out, BUFFER_SIZE), JsonEncoding.UTF8);
+        // One object per line: no separator between root values, a newline after each instead
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long count = 0;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                writeJsonValue(generator, row[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.close();
+        return count;
+    }
+
+    private static void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Double d) {
+            generator.writeNumber(d);
+        } else if (value instanceof Boolean b) {
+            generator.writeBoolean(b);
+        } else {
+            generator.writeString(text(value));
+        }
+    }
+
+    // Enums by name, dates and times in ISO-8601
+    private static String text(Object value) {
+        return value instanceof Enum<?> e ? e.name() : value.toString();
+    }
+}
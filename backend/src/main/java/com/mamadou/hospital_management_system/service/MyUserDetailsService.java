@@ -2,6 +2,8 @@ package com.mamadou.hospital_management_system.service;
 
 import com.mamadou.hospital_management_system.model.User;
 import com.mamadou.hospital_management_system.repository.UserRepository;
+import com.mamadou.hospital_management_system.security.AuthenticatedUser;
+import com.mamadou.hospital_management_system.security.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,13 +17,21 @@ import java.util.Optional;
 public class MyUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         Optional<User> user = userRepository.findByEmail(email);
         if (user.isPresent()) {
-            User user1 = user.get();
             return user.get();
         }
         return null;
     }
+
+    // Only hits the database on a cache miss
+    public AuthenticatedUser loadAuthenticatedUser(String email) {
+        return userCache.get(email, e -> userRepository.findByEmail(e)
+                        .map(u -> new AuthenticatedUser(u.getId(), u.getEmail(), u.getRole())))
+                .orElse(null);
+    }
 }
@@ -0,0 +1,285 @@
+package com.mamadou.hospital_management_system.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// In-memory word and trigram index over patient names, email, phone and address.
+// Every query word must match the patient as an exact word, a word prefix, a substring or, when fuzzy,
+// a name or address word at least FUZZY_THRESHOLD similar by trigrams (as pg_trgm scores it). Trigrams index
+// the distinct words rather than the patients, since names repeat far more than patients do. Writes are
+// serialized; searches take no lock.
+public class PatientSearchIndex {
+
+    public record Document(long id, String firstName, String lastName, String email,
+                           String phone, String address, String status) {}
+
+    public record Hit(Document document, double score) {}
+
+    public record Page(long total, List<Hit> hits) {}
+
+    // first name, last name, email, phone, address; typos are only forgiven in names and addresses
+    private static final double[] WEIGHTS = {4, 4, 2, 2, 1};
+    private static final boolean[] FUZZY = {true, true, false, false, true};
+    private static final double FUZZY_THRESHOLD = 0.3;
+    private static final int GRAM = 3;
+
+    private static final Comparator<Hit> RANK = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(h -> h.document().lastName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(h -> h.document().firstName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparingLong(h -> h.document().id());
+
+    private record Entry(Document document, List<Set<String>> words) {}
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // word -> patients, one map per field so a match knows which weight applies
+    private final List<ConcurrentSkipListMap<String, Set<Long>>> postings = new ArrayList<>();
+    // Trigrams of every word for substring matching, and of name and address words for fuzzy matching
+    private final Vocabulary allWords = new Vocabulary();
+    private final Vocabulary fuzzyWords = new Vocabulary();
+
+    public PatientSearchIndex() {
+        for (int f = 0; f < WEIGHTS.length; f++) postings.add(new ConcurrentSkipListMap<>());
+    }
+
+    // New postings go in before the entry is swapped and stale ones come out after, so a concurrent
+    // search can miss a patient for an instant but never returns one that doesn't match
+    public synchronized void put(Document document) {
+        Entry entry = new Entry(document, List.of(
+                split(document.firstName()), split(document.lastName()), split(document.email()),
+                digits(document.phone()), split(document.address())));
+        Entry previous = entries.get(document.id());
+        for (int f = 0; f < WEIGHTS.length; f++) {
+            for (String word : entry.words().get(f)) {
+                if (previous == null || !previous.words().get(f).contains(word)) post(f, word, document.id());
+            }
+        }
+
+        entries.put(document.id(), entry);
+        if (previous != null) {
+            for (int f = 0; f < WEIGHTS.length; f++) {
+                for (String word : previous.words().get(f)) {
+                    if (!entry.words().get(f).contains(word)) unpost(f, word, document.id());
+                }
+            }
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) return;
+        for (int f = 0; f < WEIGHTS.length; f++) {
+            for (String word : previous.words().get(f)) unpost(f, word, id);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Page search(String query, boolean fuzzy, int page, int size) {
+        Set<String> queryWords = split(query);
+        if (queryWords.isEmpty()) {
+            return new Page(0, List.of());
+        }
+
+        // Words after the first only score patients every earlier word already matched
+        Map<Long, Double> scores = null;
+        for (String word : queryWords) {
+            Map<Long, Double> matched = match(word, fuzzy, scores);
+            if (scores != null) {
+                Map<Long, Double> previous = scores;
+                matched.replaceAll((id, score) -> score + previous.get(id));
+            }
+            scores = matched;
+            if (scores.isEmpty()) {
+                return new Page(0, List.of());
+            }
+        }
+
+        // Only the hits up to the requested page are ranked; the heap head is the worst of them
+        long keep = Math.min((long) (page + 1) * size, scores.size());
+        PriorityQueue<Hit> top = new PriorityQueue<>((int) Math.max(keep, 1), RANK.reversed());
+        long total = 0;
+        for (Map.Entry<Long, Double> scored : scores.entrySet()) {
+            Entry entry = entries.get(scored.getKey());
+            if (entry == null) continue;
+            total++;
+            Hit hit = new Hit(entry.document(), scored.getValue());
+            if (top.size() < keep) {
+                top.add(hit);
+            } else if (keep > 0 && RANK.compare(hit, top.peek()) < 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(RANK);
+        int from = (int) Math.min((long) page * size, ranked.size());
+        return new Page(total, List.copyOf(ranked.subList(from, ranked.size())));
+    }
+
+    // Resolves the query word to matching indexed words, then expands those to patients, optionally
+    // only the ones in `within`
+    private Map<Long, Double> match(String word, boolean fuzzy, Map<Long, Double> within) {
+        Map<Long, Double> scores = new HashMap<>();
+        // A word this short can only match as a prefix, and its prefix range can span most of the
+        // vocabulary; checking the patients still in play is cheaper
+        if (within != null && word.length() < GRAM) {
+            for (Long id : within.keySet()) {
+                Entry entry = entries.get(id);
+                if (entry == null) continue;
+                double best = 0;
+                for (int f = 0; f < WEIGHTS.length; f++) {
+                    for (String candidate : entry.words().get(f)) {
+                        if (candidate.startsWith(word)) {
+                            best = Math.max(best, WEIGHTS[f] * (candidate.length() == word.length() ? 1.0 : 0.8));
+                        }
+                    }
+                }
+                if (best > 0) scores.put(id, best);
+            }
+            return scores;
+        }
+
+        // Exact word, then word prefix, then substring, then a typo-tolerant trigram match
+        Set<String> prefixed = new HashSet<>();
+        for (int f = 0; f < WEIGHTS.length; f++) {
+            for (Map.Entry<String, Set<Long>> posting
+                    : postings.get(f).subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                prefixed.add(posting.getKey());
+                double quality = posting.getKey().length() == word.length() ? 1.0 : 0.8;
+                collect(scores, posting.getValue(), WEIGHTS[f] * quality, within);
+            }
+        }
+        if (word.length() < GRAM) {
+            return scores;
+        }
+
+        Map<String, Double> matches = new HashMap<>();
+        for (String candidate : wordsContaining(word)) {
+            if (!prefixed.contains(candidate)) matches.put(candidate, 0.5);
+        }
+        if (fuzzy) {
+            fuzzyMatches(padded(word), prefixed, matches);
+        }
+        matches.forEach((candidate, quality) -> {
+            for (int f = 0; f < WEIGHTS.length; f++) {
+                Set<Long> ids = postings.get(f).get(candidate);
+                if (ids != null) collect(scores, ids, WEIGHTS[f] * quality, within);
+            }
+        });
+        return scores;
+    }
+
+    private static void collect(Map<Long, Double> scores, Set<Long> ids, double score, Map<Long, Double> within) {
+        for (Long id : ids) {
+            if (within == null || within.containsKey(id)) scores.merge(id, score, Math::max);
+        }
+    }
+
+    // Any word containing the query contains its rarest trigram, so that one posting is enough to scan
+    private Set<String> wordsContaining(String word) {
+        Set<String> rarest = null;
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            Set<String> posting = allWords.grams.get(word.substring(i, i + GRAM));
+            if (posting == null) return Set.of();
+            if (rarest == null || posting.size() < rarest.size()) rarest = posting;
+        }
+        Set<String> result = new HashSet<>();
+        for (String candidate : rarest) {
+            if (candidate.contains(word)) result.add(candidate);
+        }
+        return result;
+    }
+
+    // Reaching the threshold takes at least `needed` shared trigrams, so a match must share one of any
+    // (size - needed + 1) of the query's trigrams; the rarest ones make the smallest candidate set.
+    // Shared trigrams are then counted against the query's postings instead of re-splitting each word.
+    private void fuzzyMatches(Set<String> queryGrams, Set<String> prefixed, Map<String, Double> matches) {
+        int needed = (int) Math.ceil(FUZZY_THRESHOLD * queryGrams.size());
+        List<Set<String>> byRarity = queryGrams.stream()
+                .map(gram -> fuzzyWords.grams.getOrDefault(gram, Set.of()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .toList();
+        Set<String> seen = new HashSet<>();
+        for (Set<String> posting : byRarity.subList(0, queryGrams.size() - needed + 1)) {
+            for (String candidate : posting) {
+                if (prefixed.contains(candidate) || matches.containsKey(candidate) || !seen.add(candidate)) continue;
+                int shared = 0;
+                for (Set<String> other : byRarity) {
+                    if (other.contains(candidate)) shared++;
+                }
+                Integer candidateGrams = fuzzyWords.gramCounts.get(candidate);
+                if (shared < needed || candidateGrams == null) continue;
+                double similarity = (double) shared / (queryGrams.size() + candidateGrams - shared);
+                if (similarity >= FUZZY_THRESHOLD) matches.put(candidate, 0.6 * similarity);
+            }
+        }
+    }
+
+    private void post(int field, String word, long id) {
+        postings.get(field).computeIfAbsent(word, k -> ConcurrentHashMap.newKeySet()).add(id);
+        allWords.add(word);
+        if (FUZZY[field]) fuzzyWords.add(word);
+    }
+
+    private void unpost(int field, String word, long id) {
+        Set<Long> ids = postings.get(field).get(word);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.get(field).remove(word);
+        }
+        allWords.remove(word);
+        if (FUZZY[field]) fuzzyWords.remove(word);
+    }
+
+    // Distinct words by trigram, reference-counted so a word leaves once no patient field uses it.
+    // Mutated only under the index lock.
+    private static final class Vocabulary {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final Map<String, Set<String>> grams = new ConcurrentHashMap<>();
+        // distinct trigrams per word, the denominator of its similarity
+        private final Map<String, Integer> gramCounts = new ConcurrentHashMap<>();
+
+        void add(String word) {
+            if (refs.merge(word, 1, Integer::sum) > 1) return;
+            Set<String> wordGrams = padded(word);
+            gramCounts.put(word, wordGrams.size());
+            for (String gram : wordGrams) {
+                grams.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(word);
+            }
+        }
+
+        void remove(String word) {
+            Integer left = refs.computeIfPresent(word, (k, count) -> count > 1 ? count - 1 : null);
+            if (left != null) return;
+            gramCounts.remove(word);
+            for (String gram : padded(word)) {
+                Set<String> words = grams.get(gram);
+                if (words != null && words.remove(word) && words.isEmpty()) grams.remove(gram);
+            }
+        }
+    }
+
+    // pg_trgm style: two spaces in front and one behind, so word starts weigh more than word ends
+    private static Set<String> padded(String word) {
+        String padded = "  " + word + " ";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            result.add(padded.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    private static Set<String> split(String value) {
+        if (value == null) return Set.of();
+        String normalized = value.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return normalized.isEmpty() ? Set.of() : new LinkedHashSet<>(Arrays.asList(normalized.split(" ")));
+    }
+
+    // Phone numbers are indexed as one run of digits, so any formatting of the query matches
+    private static Set<String> digits(String phone) {
+        String digits = phone == null ? "" : phone.replaceAll("\\D", "");
+        return digits.isEmpty() ? Set.of() : Set.of(digits);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.PatientSearchResponse;
+import com.mamadou.hospital_management_system.event.PatientChangedEvent;
+import com.mamadou.hospital_management_system.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class PatientSearchService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final PatientRepository patientRepository;
+
+    // Replaced whole on rebuild, so searches never see a half-filled index
+    private volatile PatientSearchIndex index = new PatientSearchIndex();
+
+    public PatientSearchResponse search(String query, boolean fuzzy, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(page, 0);
+        PatientSearchIndex.Page result = index.search(query, fuzzy, pageNumber, pageSize);
+        List<PatientSearchResponse.Result> results = result.hits().stream()
+                .map(hit -> {
+                    PatientSearchIndex.Document d = hit.document();
+                    return new PatientSearchResponse.Result(d.id(), d.firstName(), d.lastName(), d.email(),
+                            d.phone(), d.address(), d.status(), hit.score());
+                })
+                .toList();
+        return new PatientSearchResponse(pageNumber, pageSize, result.total(), results);
+    }
+
+    // Only PatientService writes the indexed fields, so its events keep the index current after startup.
+    // A change arriving mid-rebuild waits for the swap and is then re-read into the new index.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        PatientSearchIndex next = new PatientSearchIndex();
+        patientRepository.findSearchFields().forEach(row -> next.put(toDocument(row)));
+        index = next;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPatientChanged(PatientChangedEvent event) {
+        if (event.kind() == PatientChangedEvent.Kind.DELETED) {
+            index.remove(event.patientId());
+            return;
+        }
+        List<Object[]> rows = patientRepository.findSearchFieldsById(event.patientId());
+        if (rows.isEmpty()) {
+            index.remove(event.patientId());
+        } else {
+            index.put(toDocument(rows.get(0)));
+        }
+    }
+
+    private static PatientSearchIndex.Document toDocument(Object[] row) {
+        return new PatientSearchIndex.Document((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                (String) row[4], (String) row[5], (String) row[6]);
+    }
+}
@@ -4,16 +4,29 @@ import com.mamadou.hospital_management_system.dto.AddPatientRequest;
 import com.mamadou.hospital_management_system.dto.MessageResponse;
 import com.mamadou.hospital_management_system.dto.PatientDetailResponse;
 import com.mamadou.hospital_management_system.dto.PatientStatsResponse;
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.event.PatientChangedEvent;
 import com.mamadou.hospital_management_system.model.Patient;
 import com.mamadou.hospital_management_system.model.User;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
 import com.mamadou.hospital_management_system.repository.PatientRepository;
+import com.mamadou.hospital_management_system.repository.RecordRepository;
 import com.mamadou.hospital_management_system.repository.UserRepository;
+import com.mamadou.hospital_management_system.security.UserCache;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,48 +37,58 @@ import java.util.stream.Collectors;
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final RecordRepository recordRepository;
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final ArrivalRollupService arrivalRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlightCache singleFlightCache;
+    private final TransactionTemplate transactionTemplate;
 
+    private static final String STATS_CACHE_KEY = "patient-stats";
+
+    // Only the leader opens a transaction; followers wait without holding a connection
+    @Transactional(Transactional.TxType.SUPPORTS)
     public PatientStatsResponse getPatientStats() {
-        List<Patient> allPatients = patientRepository.findAll();
+        return singleFlightCache.get(STATS_CACHE_KEY, () -> transactionTemplate.execute(status -> loadPatientStats()));
+    }
 
+    private PatientStatsResponse loadPatientStats() {
         // Age Stats
-        long child = allPatients.stream().filter(p -> p.getAge() <= 12).count();
-        long teen = allPatients.stream().filter(p -> p.getAge() > 12 && p.getAge() <= 19).count();
-        long adult = allPatients.stream().filter(p -> p.getAge() > 19 && p.getAge() <= 59).count();
-        long older = allPatients.stream().filter(p -> p.getAge() > 59).count();
-        PatientStatsResponse.AgeStats ageStats = new PatientStatsResponse.AgeStats(child, teen, adult, older);
-
-        // Summary Data (Last 6 months)
-        Map<String, List<Patient>> patientsByMonth = allPatients.stream()
-                .filter(p -> p.getCreatedAt() != null)
-                .collect(Collectors.groupingBy(p -> p.getCreatedAt().getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH)));
-
-        String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+        Object[] ages = patientRepository.countByAgeBucket().get(0);
+        PatientStatsResponse.AgeStats ageStats = new PatientStatsResponse.AgeStats(
+                ((Number) ages[0]).longValue(),
+                ((Number) ages[1]).longValue(),
+                ((Number) ages[2]).longValue(),
+                ((Number) ages[3]).longValue()
+        );
+
+        // Summary Data (Last 6 months, keyed by year and month)
+        YearMonth current = YearMonth.now();
+        YearMonth first = current.minusMonths(5);
+        Map<YearMonth, Map<String, Long>> statusByMonth = new HashMap<>();
+        for (Object[] row : patientRepository.countByMonthAndStatusSince(first.atDay(1).atStartOfDay())) {
+            YearMonth month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            statusByMonth.computeIfAbsent(month, m -> new HashMap<>())
+                    .put(row[2] != null ? (String) row[2] : "", (Long) row[3]);
+        }
+
         List<PatientStatsResponse.SummaryData> summaryData = new ArrayList<>();
-        
-        // Get last 6 months
-        LocalDate now = LocalDate.now();
-        for (int i = 5; i >= 0; i--) {
-            String monthName = now.minusMonths(i).getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-            List<Patient> monthPatients = patientsByMonth.getOrDefault(monthName, Collections.emptyList());
-            
-            long in = monthPatients.stream().filter(p -> "Inpatient".equalsIgnoreCase(p.getStatus())).count();
-            long out = monthPatients.stream().filter(p -> "Outpatient".equalsIgnoreCase(p.getStatus())).count();
-            long dis = monthPatients.stream().filter(p -> "Discharged".equalsIgnoreCase(p.getStatus())).count();
-            
-            summaryData.add(new PatientStatsResponse.SummaryData(monthName, in, out, dis));
+        for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+            Map<String, Long> counts = statusByMonth.getOrDefault(month, Collections.emptyMap());
+            summaryData.add(new PatientStatsResponse.SummaryData(
+                    month.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH),
+                    counts.getOrDefault("inpatient", 0L),
+                    counts.getOrDefault("outpatient", 0L),
+                    counts.getOrDefault("discharged", 0L)
+            ));
         }
 
         // Diagnosis Data
-        Map<String, Long> diagnosisCounts = allPatients.stream()
-                .filter(p -> p.getType() != null)
-                .collect(Collectors.groupingBy(Patient::getType, Collectors.counting()));
-
-        List<PatientStatsResponse.DiagnosisData> diagnosisData = diagnosisCounts.entrySet().stream()
-                .map(entry -> new PatientStatsResponse.DiagnosisData(entry.getKey(), entry.getValue(), 100))
-                .limit(8)
+        List<PatientStatsResponse.DiagnosisData> diagnosisData = patientRepository.countTopDiagnoses(Limit.of(8)).stream()
+                .map(row -> new PatientStatsResponse.DiagnosisData((String) row[0], (Long) row[1], 100))
                 .collect(Collectors.toList());
 
         return new PatientStatsResponse(ageStats, summaryData, diagnosisData);
@@ -84,6 +107,7 @@ public class PatientService {
             user.setBirthDate(LocalDate.now().minusYears(request.age())); // Approximate birth date from age
             user.setRole(com.mamadou.hospital_management_system.enums.Role.PATIENT);
             userRepository.save(user);
+            userCache.evict(user.getEmail());
         }
 
         Patient newPatient = new Patient();
@@ -102,6 +126,8 @@ public class PatientService {
         newPatient.setBloodOxygen(request.bloodOxygen());
 
         patientRepository.save(newPatient);
+        arrivalRollupService.recordPatientArrival(LocalDateTime.now(), newPatient.getStatus());
+        eventPublisher.publishEvent(new PatientChangedEvent(newPatient.getId(), PatientChangedEvent.Kind.CREATED, null, newPatient.getStatus()));
         return new MessageResponse("Patient Added");
     }
 
@@ -111,12 +137,14 @@ public class PatientService {
 
         User user = patient.getUser();
         if (user != null) {
+            userCache.evict(user.getEmail());
             user.setFirstName(request.firstName());
             user.setLastName(request.lastName());
             user.setEmail(request.email());
             user.setAddress(request.address());
             user.setBirthDate(LocalDate.now().minusYears(request.age()));
             userRepository.save(user);
+            userCache.evict(user.getEmail());
         }
 
         patient.setGender(request.gender());
@@ -126,6 +154,7 @@ public class PatientService {
         patient.setHeight(request.height());
         patient.setPhone(request.phone());
         patient.setAddress(request.address());
+        String previousStatus = patient.getStatus();
         patient.setStatus(request.status());
         patient.setType(request.type());
         patient.setPulseRate(request.pulseRate());
@@ -133,6 +162,7 @@ public class PatientService {
         patient.setBloodOxygen(request.bloodOxygen());
 
         patientRepository.save(patient);
+        eventPublisher.publishEvent(new PatientChangedEvent(patient.getId(), PatientChangedEvent.Kind.UPDATED, previousStatus, patient.getStatus()));
         return new MessageResponse("Patient Updated");
     }
 
@@ -142,62 +172,75 @@ public class PatientService {
             return new MessageResponse("No Patient with Such Email");
         }
         patientRepository.delete(patient);
+        userCache.evict(email);
+        eventPublisher.publishEvent(new PatientChangedEvent(patient.getId(), PatientChangedEvent.Kind.DELETED, patient.getStatus(), null));
         return new MessageResponse("Patient Deleted");
     }
 
     public MessageResponse deletePatientById(long id) {
-        if (!patientRepository.existsById(id)) {
-            throw new RuntimeException("Patient not found");
+        Patient patient = patientRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Patient not found"));
+        patientRepository.delete(patient);
+        if (patient.getUser() != null) {
+            userCache.evict(patient.getUser().getEmail());
         }
-        patientRepository.deleteById(id);
+        eventPublisher.publishEvent(new PatientChangedEvent(id, PatientChangedEvent.Kind.DELETED, patient.getStatus(), null));
         return new MessageResponse("Patient Deleted");
     }
 
-    public List<PatientDetailResponse> getAllPatients() {
-        return patientRepository.findAll()
-            .stream()
-            .map(p -> new PatientDetailResponse(
-                p.getId(),
-                p.getUser().getFirstName(),
-                p.getUser().getLastName(),
-                p.getUser().getEmail(),
-                p.getGender(),
-                p.getBloodGroup(),
-                p.getAge(),
-                p.getWeight(),
-                p.getHeight(),
-                p.getPhone(),
-                p.getAddress(),
-                p.getStatus(),
-                p.getType(),
-                p.getPulseRate(),
-                p.getBloodPressure(),
-                p.getBloodOxygen(),
-                null,
-                null
-            ))
-            .collect(Collectors.toList());
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // API sort keys mapped to query paths; anything else falls back to id
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "p.id",
+            "firstName", "u.firstName",
+            "lastName", "u.lastName",
+            "age", "p.age",
+            "status", "p.status",
+            "bloodGroup", "p.bloodGroup"
+    );
+
+    // Offset paging with page/sort, or keyset paging on id when afterId is given
+    public List<PatientDetailResponse> getAllPatients(int page, int size, String sort, Sort.Direction direction,
+                                                      Long afterId, String status, String bloodGroup,
+                                                      Integer minAge, Integer maxAge) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable pageable = afterId != null
+                ? PageRequest.of(0, pageSize, Sort.by("p.id"))
+                : PageRequest.of(Math.max(page, 0), pageSize,
+                        Sort.by(direction, SORTABLE.getOrDefault(sort, "p.id")).and(Sort.by("p.id")));
+        return patientRepository.findDirectory(afterId, status, bloodGroup, minAge, maxAge, pageable);
     }
 
-    public PatientDetailResponse getPatientById(long id) {
-        Patient p = patientRepository.findById(id).orElseThrow(() -> new RuntimeException("Patient not found"));
-        
-        List<PatientDetailResponse.AppointmentDTO> appointments = p.getAppointments().stream()
-            .map(a -> new PatientDetailResponse.AppointmentDTO(
-                a.getId(),
-                a.getDoctor().getUser().getFirstName() + " " + a.getDoctor().getUser().getLastName(),
-                a.getDoctor().getSpecialty(),
-                a.getAppointmentDate().toString(),
-                a.getStatus().name()
+    public static final int DEFAULT_DETAIL_PAGE_SIZE = 20;
+    public static final int MAX_DETAIL_PAGE_SIZE = 100;
+
+    // Three queries: patient with user, one page of appointments, one page of records
+    public PatientDetailResponse getPatientById(long id, int appointmentsPage, int recordsPage, int size) {
+        Patient p = patientRepository.findWithUserById(id).orElseThrow(() -> new RuntimeException("Patient not found"));
+        int pageSize = Math.max(1, Math.min(size, MAX_DETAIL_PAGE_SIZE));
+
+        List<PatientDetailResponse.AppointmentDTO> appointments = appointmentRepository
+            .findSummariesByPatientId(id, PageRequest.of(Math.max(appointmentsPage, 0), pageSize))
+            .stream()
+            .map(row -> new PatientDetailResponse.AppointmentDTO(
+                (Long) row[0],
+                row[1] + " " + row[2],
+                (String) row[3],
+                String.valueOf(row[4]),
+                row[5] != null ? ((BookingStatus) row[5]).name() : null
             ))
             .collect(Collectors.toList());
 
-        List<PatientDetailResponse.MedicalRecordDTO> records = p.getMedicalRecords().stream()
-            .map(r -> new PatientDetailResponse.MedicalRecordDTO(
-                r.getId(),
-                r.getDiagnosis(),
-                r.getPrescription(),
-                r.getIssueDate() != null ? r.getIssueDate().toString() : "N/A"
+        List<PatientDetailResponse.MedicalRecordDTO> records = recordRepository
+            .findSummariesByPatientId(id, PageRequest.of(Math.max(recordsPage, 0), pageSize))
+            .stream()
+            .map(row -> new PatientDetailResponse.MedicalRecordDTO(
+                (Long) row[0],
+                (String) row[1],
+                (String) row[2],
+                row[3] != null ? row[3].toString() : "N/A"
             ))
             .collect(Collectors.toList());
 
@@ -0,0 +1,80 @@
+package com.mamadou.hospital_management_system.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Request coalescing for expensive reads: concurrent callers of the same key share one in-flight
+// computation, and its result is reused for a short TTL. Callers must not hold a transaction while
+// waiting, or every follower pins a pooled connection doing nothing.
+@Component
+public class SingleFlightCache {
+
+    private record Entry(Object value, long expiresAt) {}
+
+    private final long ttlMillis;
+    private final Map<String, Entry> results = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public SingleFlightCache(@Value("${spring.application.single-flight.ttl-millis:2000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        Entry entry = results.get(key);
+        if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+            return (T) entry.value();
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            return (T) await(leader);
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(key, k -> new AtomicLong());
+        long startedAt = generation.get();
+        try {
+            T value = loader.get();
+            // A write that invalidated this key while we were loading may not be reflected; don't cache it
+            if (generation.get() == startedAt) {
+                results.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void invalidate(String key) {
+        generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        results.remove(key);
+    }
+
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        results.clear();
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+}
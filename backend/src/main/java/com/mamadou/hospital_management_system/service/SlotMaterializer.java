@@ -0,0 +1,226 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.DaySlotsResponse;
+import com.mamadou.hospital_management_system.event.DoctorChangedEvent;
+import com.mamadou.hospital_management_system.model.Doctor;
+import com.mamadou.hospital_management_system.model.DoctorSchedule;
+import com.mamadou.hospital_management_system.model.DoctorSlotDay;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
+import com.mamadou.hospital_management_system.repository.DoctorRepository;
+import com.mamadou.hospital_management_system.repository.DoctorScheduleRepository;
+import com.mamadou.hospital_management_system.repository.DoctorSlotDayRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Expands weekly DoctorSchedule templates into per-day slot bitmaps for a rolling horizon,
+// so a booking is a bit check and flip on one locked row instead of a scan over appointments.
+@Service
+@RequiredArgsConstructor
+public class SlotMaterializer {
+
+    public static final int UNIT_MINUTES = 15;
+    public static final int UNITS_PER_DAY = 24 * 60 / UNIT_MINUTES;
+    public static final int APPOINTMENT_MINUTES = (int) AvailabilityIndex.SLOT.toMinutes();
+
+    private final DoctorSlotDayRepository doctorSlotDayRepository;
+    private final DoctorScheduleRepository doctorScheduleRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${spring.application.slots.horizon-weeks:8}")
+    private int horizonWeeks;
+
+    // Drops past days and materializes any missing days up to the horizon, one doctor per transaction
+    // so the job never holds more than one doctor's days at a time
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${spring.application.jobs.slot-horizon.cron:0 30 0 * * *}")
+    public void rollHorizon() {
+        LocalDate today = LocalDate.now();
+        transactionTemplate.executeWithoutResult(status -> doctorSlotDayRepository.deleteBefore(today));
+
+        // Doctors whose schedules are all gone still have their existing days closed
+        Set<Integer> doctorIds = new TreeSet<>(doctorScheduleRepository.findDoctorIds());
+        doctorIds.addAll(doctorSlotDayRepository.findDoctorIdsFrom(today));
+        for (Integer doctorId : doctorIds) {
+            transactionTemplate.executeWithoutResult(status -> regenerate(doctorId));
+        }
+    }
+
+    // Runs inside the transaction that changed the schedule, so slots and schedule commit together
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.doctorId() != null) {
+            regenerate(event.doctorId());
+        }
+    }
+
+    @Transactional
+    public void regenerate(int doctorId) {
+        // Doctor row first, as schedule edits do, so the job and an edit for the same doctor queue up
+        doctorRepository.findByIdForUpdate(doctorId);
+        List<DoctorSchedule> schedules = doctorScheduleRepository.findByDoctorIdWithDoctor(doctorId);
+        Map<DayOfWeek, BitSet> week = openUnitsByDay(schedules);
+        LocalDate today = LocalDate.now();
+        LocalDate end = horizonEnd(today);
+        Map<LocalDate, DoctorSlotDay> existing = doctorSlotDayRepository.findByDoctorBetweenForUpdate(doctorId, today, end)
+                .stream()
+                .collect(Collectors.toMap(DoctorSlotDay::getSlotDate, d -> d));
+
+        // Existing rows already carry their booked bits; only the days about to be created need bookings
+        List<LocalDate> created = today.datesUntil(end)
+                .filter(date -> !existing.containsKey(date) && week.containsKey(date.getDayOfWeek()))
+                .toList();
+        List<LocalDateTime> booked = created.isEmpty() ? List.of() : appointmentRepository.findBookedTimesByDoctorBetween(
+                doctorId, created.get(0).atStartOfDay(), created.get(created.size() - 1).plusDays(1).atStartOfDay());
+        Doctor doctor = schedules.isEmpty() ? null : schedules.get(0).getDoctor();
+        doctorSlotDayRepository.saveAll(materialize(doctor, week, today, end, existing, booked));
+    }
+
+    public record DayKey(int doctorId, LocalDate date) {}
+
+    // Returns false when the time is already taken. Days outside the horizon, or doctors without
+    // schedules, have no row and keep the old free-form behaviour.
+    @Transactional
+    public boolean reserve(int doctorId, LocalDateTime start) {
+        if (start == null) return true;
+        return reserve(doctorSlotDayRepository.findForUpdate(doctorId, start.toLocalDate()).orElse(null), start);
+    }
+
+    // Locks all doctor-days a batch touches in one statement, for use with reserve(DoctorSlotDay, ...)
+    @Transactional
+    public Map<DayKey, DoctorSlotDay> lockDays(Collection<Integer> doctorIds, Collection<LocalDate> dates) {
+        if (doctorIds.isEmpty() || dates.isEmpty()) return Map.of();
+        return doctorSlotDayRepository.findAllForUpdate(doctorIds, dates).stream()
+                .collect(Collectors.toMap(d -> new DayKey(d.getDoctor().getId(), d.getSlotDate()), d -> d));
+    }
+
+    public boolean reserve(DoctorSlotDay day, LocalDateTime start) {
+        if (day == null || start == null) return true;
+
+        BitSet open = BitSet.valueOf(day.getOpenUnits());
+        BitSet taken = BitSet.valueOf(day.getBookedUnits());
+        BitSet wanted = unitsOf(start);
+        if (!covers(open, wanted)) {
+            throw new RuntimeException("Doctor is not scheduled at that time");
+        }
+        if (wanted.intersects(taken)) {
+            return false;
+        }
+        taken.or(wanted);
+        day.setBookedUnits(toBytes(taken));
+        return true;
+    }
+
+    @Transactional
+    public void release(int doctorId, LocalDateTime start) {
+        if (start == null) return;
+        doctorSlotDayRepository.findForUpdate(doctorId, start.toLocalDate()).ifPresent(day -> release(day, start));
+    }
+
+    public void release(DoctorSlotDay day, LocalDateTime start) {
+        if (day == null || start == null) return;
+        BitSet taken = BitSet.valueOf(day.getBookedUnits());
+        taken.andNot(unitsOf(start));
+        day.setBookedUnits(toBytes(taken));
+    }
+
+    // Every 15-minute start where a full appointment fits in open, unbooked time
+    public List<DaySlotsResponse> getFreeSlots(int doctorId, LocalDate from, int days) {
+        int appointmentUnits = APPOINTMENT_MINUTES / UNIT_MINUTES;
+        List<DaySlotsResponse> result = new ArrayList<>();
+        for (DoctorSlotDay day : doctorSlotDayRepository.findByDoctorBetween(doctorId, from, from.plusDays(days))) {
+            BitSet free = BitSet.valueOf(day.getOpenUnits());
+            free.andNot(BitSet.valueOf(day.getBookedUnits()));
+            List<LocalTime> starts = new ArrayList<>();
+            for (int unit = free.nextSetBit(0); unit >= 0 && unit + appointmentUnits <= UNITS_PER_DAY; unit = free.nextSetBit(unit + 1)) {
+                if (free.nextClearBit(unit) >= unit + appointmentUnits) {
+                    starts.add(LocalTime.of(0, 0).plusMinutes((long) unit * UNIT_MINUTES));
+                }
+            }
+            result.add(new DaySlotsResponse(day.getSlotDate(), starts));
+        }
+        return result;
+    }
+
+    private LocalDate horizonEnd(LocalDate today) {
+        return today.plusWeeks(horizonWeeks);
+    }
+
+    // Open units per weekday; days without a usable schedule are absent
+    private static Map<DayOfWeek, BitSet> openUnitsByDay(List<DoctorSchedule> schedules) {
+        Map<DayOfWeek, BitSet> week = new EnumMap<>(DayOfWeek.class);
+        for (DoctorSchedule s : schedules) {
+            if (s.getDayOfWeek() == null || s.getStartTime() == null || s.getEndTime() == null) continue;
+            int first = (minuteOfDay(s.getStartTime()) + UNIT_MINUTES - 1) / UNIT_MINUTES;
+            int last = minuteOfDay(s.getEndTime()) / UNIT_MINUTES;
+            if (first < last) {
+                week.computeIfAbsent(s.getDayOfWeek(), d -> new BitSet(UNITS_PER_DAY)).set(first, last);
+            }
+        }
+        return week;
+    }
+
+    // New or changed rows only. Existing rows get new open bits and keep their booked bits; with no
+    // schedules left every existing day is closed. Existing rows must be locked by the caller.
+    private List<DoctorSlotDay> materialize(Doctor doctor, Map<DayOfWeek, BitSet> week, LocalDate from, LocalDate to,
+                                            Map<LocalDate, DoctorSlotDay> existing, List<LocalDateTime> booked) {
+        Map<LocalDate, List<LocalDateTime>> bookedByDay = booked.stream()
+                .collect(Collectors.groupingBy(LocalDateTime::toLocalDate));
+
+        List<DoctorSlotDay> changed = new ArrayList<>();
+        for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+            BitSet open = week.getOrDefault(date.getDayOfWeek(), new BitSet(UNITS_PER_DAY));
+            DoctorSlotDay day = existing.get(date);
+            if (day == null) {
+                if (open.isEmpty()) continue;
+                BitSet taken = new BitSet(UNITS_PER_DAY);
+                bookedByDay.getOrDefault(date, List.of()).forEach(t -> taken.or(unitsOf(t)));
+                day = new DoctorSlotDay();
+                day.setDoctor(doctor);
+                day.setSlotDate(date);
+                day.setBookedUnits(toBytes(taken));
+            } else if (open.equals(BitSet.valueOf(day.getOpenUnits()))) {
+                continue;
+            }
+            day.setOpenUnits(toBytes(open));
+            changed.add(day);
+        }
+        return changed;
+    }
+
+    // Units touched by an appointment starting at the given time, clipped to the end of the day
+    private static BitSet unitsOf(LocalDateTime start) {
+        int minute = minuteOfDay(start.toLocalTime());
+        BitSet units = new BitSet(UNITS_PER_DAY);
+        units.set(minute / UNIT_MINUTES,
+                Math.min(UNITS_PER_DAY, (minute + APPOINTMENT_MINUTES + UNIT_MINUTES - 1) / UNIT_MINUTES));
+        return units;
+    }
+
+    private static boolean covers(BitSet open, BitSet wanted) {
+        BitSet missing = (BitSet) wanted.clone();
+        missing.andNot(open);
+        return missing.isEmpty();
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.equals(LocalTime.MAX) ? 24 * 60 : time.toSecondOfDay() / 60;
+    }
+
+    private static byte[] toBytes(BitSet bits) {
+        return Arrays.copyOf(bits.toByteArray(), UNITS_PER_DAY / 8);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.repository.DoctorScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class SlotReservationService {
+
+    private final DoctorScheduleRepository doctorScheduleRepository;
+
+    // The conditional UPDATE is what guarantees no overbooking: it only decrements while slots remain,
+    // and concurrent bookings queue on the schedule's row lock until the holder commits.
+    public boolean tryReserve(Long scheduleId) {
+        return doctorScheduleRepository.claimSlot(scheduleId) == 1;
+    }
+
+    public void release(Long scheduleId) {
+        doctorScheduleRepository.releaseSlot(scheduleId);
+    }
+
+    public void release(Long scheduleId, int count) {
+        doctorScheduleRepository.releaseSlots(scheduleId, count);
+    }
+}
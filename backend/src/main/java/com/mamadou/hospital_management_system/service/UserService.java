@@ -7,6 +7,7 @@ import com.mamadou.hospital_management_system.dto.RegisterRequest;
 import com.mamadou.hospital_management_system.model.User;
 import com.mamadou.hospital_management_system.repository.UserRepository;
 import com.mamadou.hospital_management_system.security.JwtService;
+import com.mamadou.hospital_management_system.security.UserCache;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -23,6 +24,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final UserCache userCache;
 
 
     public MessageResponse register(RegisterRequest request) {
@@ -43,6 +45,7 @@ public class UserService {
         System.out.println("Password encoded");
 
         userRepository.save(user);
+        userCache.evict(user.getEmail());
         System.out.println("User saved");
 
         return new MessageResponse("Registered successfully");
@@ -66,7 +69,9 @@ public class UserService {
             throw new RuntimeException("Invalid email or password");
         }
 
-        String token = jwtService.generateToken(user.getEmail(), Map.of("role", user.getRole().name()));
+        String token = jwtService.generateToken(user.getEmail(), Map.of(
+                JwtService.ROLE_CLAIM, user.getRole().name(),
+                JwtService.USER_ID_CLAIM, user.getId()));
         System.out.println("Login successful for user: " + user.getEmail());
         return new AuthResponse(token, user.getRole());
     }
@@ -0,0 +1,48 @@
+package com.mamadou.hospital_management_system.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.application.stream.max-subscribers-per-user=" + AppointmentControllerTest.PER_USER)
+@AutoConfigureMockMvc
+class AppointmentControllerTest {
+
+    static final int PER_USER = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(roles = "PATIENT")
+    void streamIsForStaffOnly() throws Exception {
+        mockMvc.perform(get("/api/appointments/stream"))
+                .andExpect(status().isForbidden());
+    }
+
+    // The doctor filter comes from the caller's own doctor record, never from the request
+    @Test
+    @WithMockUser(username = "no-doctor-record@example.com", roles = "DOCTOR")
+    void doctorWithoutADoctorRecordCannotSubscribe() throws Exception {
+        mockMvc.perform(get("/api/appointments/stream").param("doctorId", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "stream-cap@example.com", roles = "RECEPTIONIST")
+    void oneUserCannotTakeMoreThanTheirShareOfStreams() throws Exception {
+        for (int i = 0; i < PER_USER; i++) {
+            mockMvc.perform(get("/api/appointments/stream"))
+                    .andExpect(request().asyncStarted());
+        }
+        mockMvc.perform(get("/api/appointments/stream"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
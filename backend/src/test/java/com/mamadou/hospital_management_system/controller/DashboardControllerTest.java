@@ -0,0 +1,39 @@
+package com.mamadou.hospital_management_system.controller;
+
+import com.mamadou.hospital_management_system.model.Department;
+import com.mamadou.hospital_management_system.repository.DepartmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void cacheStatsListsEntityRegionsAndTheQueryCache() throws Exception {
+        departmentRepository.findAll().forEach(d -> departmentRepository.findById(d.getId()));
+
+        mockMvc.perform(get("/api/dashboard/cache-stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.regions[*].name").value(hasItem(Department.class.getName())))
+                .andExpect(jsonPath("$.regions[*].name").value(not(hasItem("default-query-results-region"))))
+                .andExpect(jsonPath("$.queryCache.name").value("query-results"));
+    }
+}
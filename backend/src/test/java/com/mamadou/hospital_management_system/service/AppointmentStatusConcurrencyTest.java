@@ -0,0 +1,209 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.BookAppointmentRequest;
+import com.mamadou.hospital_management_system.dto.DoctorScheduleDTO;
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.enums.Role;
+import com.mamadou.hospital_management_system.model.Doctor;
+import com.mamadou.hospital_management_system.model.DoctorSchedule;
+import com.mamadou.hospital_management_system.model.Patient;
+import com.mamadou.hospital_management_system.model.User;
+import com.mamadou.hospital_management_system.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against its own doctor, patient and schedule, removed again after each test
+@SpringBootTest
+class AppointmentStatusConcurrencyTest {
+
+    private static final int CAPACITY = 100;
+    private static final int THREADS = 8;
+    private static final long CANCEL_HEAD_START_MILLIS = 500;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private DoctorScheduleService doctorScheduleService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorScheduleRepository doctorScheduleRepository;
+
+    @Autowired
+    private DoctorSlotDayRepository doctorSlotDayRepository;
+
+    @Autowired
+    private SlotReservationService slotReservationService;
+
+    @Autowired
+    private SlotMaterializer slotMaterializer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Doctor doctor;
+    private Patient patient;
+    private DoctorSchedule schedule;
+    private LocalDate day;
+
+    @BeforeEach
+    void createDoctorWithSchedule() {
+        // Slot days are only materialized for doctors with an account
+        user = new User();
+        user.setEmail("concurrency-" + System.nanoTime() + "@example.com");
+        user.setPassword("concurrency-test");
+        user.setAddress("Concurrency test");
+        user.setBirthDate(LocalDate.of(1980, 1, 1));
+        user.setRole(Role.DOCTOR);
+        user = userRepository.save(user);
+        doctor = new Doctor();
+        doctor.setUser(user);
+        doctor.setSpecialty("Concurrency test");
+        doctor = doctorRepository.save(doctor);
+        patient = new Patient();
+        patient.setGender("F");
+        patient.setBloodGroup("O+");
+        patient = patientRepository.save(patient);
+
+        day = LocalDate.now().plusWeeks(1);
+        doctorScheduleService.addSchedule(new DoctorScheduleDTO(doctor.getId(), CAPACITY, day.getDayOfWeek(),
+                LocalTime.of(8, 0), LocalTime.of(18, 0)));
+        schedule = doctorScheduleRepository.findByDoctor(doctor).get(0);
+    }
+
+    @AfterEach
+    void removeFixture() {
+        appointmentRepository.deleteAll(appointmentRepository.findAll().stream()
+                .filter(a -> a.getDoctor() != null && a.getDoctor().getId() == doctor.getId())
+                .toList());
+        doctorSlotDayRepository.deleteAll(doctorSlotDayRepository.findByDoctorBetween(doctor.getId(), LocalDate.now(), LocalDate.now().plusYears(1)));
+        doctorScheduleRepository.deleteAll(doctorScheduleRepository.findByDoctor(doctor));
+        patientRepository.delete(patient);
+        doctorRepository.delete(doctor);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void concurrentCancelsReleaseTheSlotOnce() throws Exception {
+        Long id = book(LocalTime.of(9, 0));
+        assertEquals(CAPACITY - 1, availableSlots());
+        assertFalse(isFree(LocalTime.of(9, 0)));
+
+        assertEquals(List.of(), runConcurrently(THREADS, i -> appointmentService.updateStatus(id, BookingStatus.CANCELLED)));
+
+        assertEquals(CAPACITY, availableSlots());
+        assertTrue(isFree(LocalTime.of(9, 0)));
+        assertEquals(BookingStatus.CANCELLED, appointmentRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    // A booking holds the schedule row and then takes the slot-day row. A cancel that runs in between
+    // must queue on the schedule row first; if it took the slot day first, the two would deadlock.
+    @Test
+    void cancelRacingABookingOnTheSameDayDoesNotDeadlock() throws Exception {
+        Long cancelled = book(LocalTime.of(9, 0));
+        LocalDateTime next = day.atTime(14, 0);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> cancel = transactionTemplate.execute(status -> {
+                assertTrue(slotReservationService.tryReserve(schedule.getId()));
+                Future<?> pending = pool.submit(() -> appointmentService.updateStatus(cancelled, BookingStatus.CANCELLED));
+                sleep(CANCEL_HEAD_START_MILLIS);
+                assertTrue(slotMaterializer.reserve(doctor.getId(), next));
+                return pending;
+            });
+            cancel.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(CAPACITY - 1, availableSlots());
+        assertTrue(isFree(LocalTime.of(9, 0)));
+        assertFalse(isFree(next.toLocalTime()));
+        assertEquals(BookingStatus.CANCELLED, appointmentRepository.findById(cancelled).orElseThrow().getStatus());
+    }
+
+    private Long book(LocalTime time) {
+        LocalDateTime start = day.atTime(time);
+        appointmentService.bookAppointment(new BookAppointmentRequest(patient.getId(), doctor.getId(), schedule.getId(),
+                "Concurrency test", null, start));
+        return appointmentRepository.findAll().stream()
+                .filter(a -> a.getDoctor() != null && a.getDoctor().getId() == doctor.getId() && start.equals(a.getAppointmentDate())
+                        && a.getStatus() == BookingStatus.BOOKED)
+                .findFirst().orElseThrow().getId();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isFree(LocalTime time) {
+        return slotMaterializer.getFreeSlots(doctor.getId(), day, 1).get(0).freeSlots().contains(time);
+    }
+
+    private int availableSlots() {
+        return doctorScheduleRepository.findById(schedule.getId()).orElseThrow().getAvailableSlots();
+    }
+
+    // Starts every task at once, waits for all of them and returns what they threw
+    private static List<RuntimeException> runConcurrently(int tasks, IntConsumerTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<RuntimeException> failures = new CopyOnWriteArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    task.run(index);
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        return failures;
+    }
+
+    @FunctionalInterface
+    private interface IntConsumerTask {
+        void run(int index);
+    }
+}
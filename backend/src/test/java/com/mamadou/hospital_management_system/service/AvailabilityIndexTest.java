@@ -0,0 +1,38 @@
+package com.mamadou.hospital_management_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilityIndexTest {
+
+    @Test
+    void bookingAndReleasingASlotChangesTheAnswer() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.putDoctor(new AvailabilityIndex.DoctorEntry(1, "Ada Cole", "Cardiology", "Cardiologist", true,
+                Map.of(DayOfWeek.TUESDAY, List.of(new AvailabilityIndex.Interval(LocalTime.of(10, 0), LocalTime.of(11, 0))))));
+        LocalDate tuesday = LocalDate.of(2026, 10, 20);
+
+        assertEquals(List.of(LocalTime.of(10, 0), LocalTime.of(10, 30)),
+                index.find("cardiology", null, tuesday, LocalTime.of(10, 0), LocalTime.of(12, 0)).get(0).freeSlots());
+
+        index.book(1, 100L, tuesday.atTime(10, 0));
+        index.book(1, 101L, tuesday.atTime(10, 30));
+        index.book(1, 101L, tuesday.atTime(10, 30));
+        assertTrue(index.find("Cardiology", null, tuesday, LocalTime.of(10, 0), LocalTime.of(12, 0)).isEmpty());
+
+        // Applying the same booking twice must not leave the slot taken after one release
+        index.release(1, 101L, tuesday.atTime(10, 30));
+        assertEquals(List.of(LocalTime.of(10, 30)),
+                index.find("Cardiology", "cardiologist", tuesday, LocalTime.of(10, 0), LocalTime.of(12, 0)).get(0).freeSlots());
+        assertTrue(index.find("Neurology", null, tuesday, LocalTime.of(10, 0), LocalTime.of(12, 0)).isEmpty());
+
+        index.pruneBefore(tuesday.plusDays(1).atStartOfDay());
+        assertEquals(List.of(LocalTime.of(10, 0), LocalTime.of(10, 30)),
+                index.find("Cardiology", null, tuesday, LocalTime.of(10, 0), LocalTime.of(12, 0)).get(0).freeSlots());
+    }
+}
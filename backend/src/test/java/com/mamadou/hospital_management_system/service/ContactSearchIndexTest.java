@@ -0,0 +1,84 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.model.Contact;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContactSearchIndexTest {
+
+    private static final int CONTACTS = 50_000;
+    private static final String[] FIRST = {"Awa", "Lamin", "Fatou", "Modou", "Isatou", "Ebrima", "Binta", "Alieu"};
+    private static final String[] LAST = {"Bah", "Jallow", "Ceesay", "Sowe", "Touray", "Drammeh", "Camara", "Sarr"};
+    private static final String[] ROLES = {"Front Desk", "Pharmacy", "Main Line", "Radiology Desk", "Ward Nurse"};
+
+    @Test
+    void ranksNameMatchesFirstAndSupportsPrefixMode() {
+        ContactSearchIndex index = ContactSearchIndex.build(List.of(
+                contact(1L, "Pharmacy Store", "Supplies", "Block A", "store@hms.gm"),
+                contact(2L, "Awa Ceesay", "Pharmacy", "Block B", "awa.ceesay@hms.gm"),
+                contact(3L, "Lamin Bah", "Front Desk", "Lobby", "reception@hms.gm")));
+
+        assertEquals(List.of(1L, 2L), ids(index.search("pharm", false, 10)));
+        assertEquals(List.of(3L), ids(index.search("ont de", false, 10)));
+        assertEquals(List.of(2L), ids(index.search("awa.cee", false, 10)));
+        assertEquals(List.of(3L), ids(index.search("la fr", true, 10)));
+        assertTrue(index.search("ont", true, 10).isEmpty());
+        assertEquals(1, index.search("", false, 1).size());
+    }
+
+    @Test
+    void keystrokeQueriesStayInTheLowMilliseconds() {
+        Random random = new Random(7);
+        List<Contact> contacts = new ArrayList<>();
+        for (long id = 1; id <= CONTACTS; id++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last = LAST[random.nextInt(LAST.length)];
+            contacts.add(contact(id, first + " " + last + " " + id, ROLES[random.nextInt(ROLES.length)],
+                    "Block " + (char) ('A' + random.nextInt(6)), first.toLowerCase() + id + "@hms.gm"));
+        }
+        ContactSearchIndex index = ContactSearchIndex.build(contacts);
+
+        // Every prefix of a few names, as typed one key at a time, in both modes
+        List<String> keystrokes = new ArrayList<>();
+        for (String name : List.of("Fatou Jallow", "Radiology", "lamin12", "ward nurse", "Ebrima Sarr 4")) {
+            for (int i = 1; i <= name.length(); i++) keystrokes.add(name.substring(0, i));
+        }
+        for (int i = 0; i < 20; i++) {
+            for (String keystroke : keystrokes) {
+                index.search(keystroke, i % 2 == 0, ContactSearchIndex.DEFAULT_LIMIT);
+            }
+        }
+
+        // Thread CPU time, so other test contexts sharing this JVM don't count. A keystroke averages about 2 ms;
+        // the bound leaves room for slow shared runners, so this runs in every build
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long begin = threads.getCurrentThreadCpuTime();
+        for (String keystroke : keystrokes) {
+            index.search(keystroke, false, ContactSearchIndex.DEFAULT_LIMIT);
+            index.search(keystroke, true, ContactSearchIndex.DEFAULT_LIMIT);
+        }
+        double averageMillis = (threads.getCurrentThreadCpuTime() - begin) / 1_000_000.0 / (keystrokes.size() * 2);
+
+        assertTrue(averageMillis < 10.0, "average keystroke took " + averageMillis + " ms");
+    }
+
+    private static Contact contact(Long id, String name, String role, String location, String email) {
+        Contact contact = new Contact();
+        contact.setId(id);
+        contact.setName(name);
+        contact.setRole(role);
+        contact.setLocation(location);
+        contact.setEmail(email);
+        return contact;
+    }
+
+    private static List<Long> ids(List<Contact> contacts) {
+        return contacts.stream().map(Contact::getId).toList();
+    }
+}
@@ -0,0 +1,71 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.event.AppointmentChangedEvent;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
+import com.mamadou.hospital_management_system.repository.DoctorRepository;
+import com.mamadou.hospital_management_system.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Repositories are stubbed so an event can be fired at an exact point inside a reconcile
+class DashboardCountersTest {
+
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final DashboardCounters counters = new DashboardCounters(doctorRepository, patientRepository,
+            appointmentRepository, mock(PlatformTransactionManager.class));
+
+    private long bookedInDatabase;
+
+    @BeforeEach
+    void stubCounts() {
+        when(doctorRepository.countGroupedByAvailability()).thenReturn(List.<Object[]>of(new Object[]{true, 2L}));
+        when(patientRepository.countGroupedByStatus()).thenReturn(List.<Object[]>of(new Object[]{"Inpatient", 3L}));
+        when(appointmentRepository.countGroupedByStatus())
+                .thenAnswer(invocation -> List.<Object[]>of(new Object[]{BookingStatus.BOOKED, bookedInDatabase}));
+    }
+
+    @Test
+    void bookingThatCommitsDuringAReconcileIsKept() {
+        bookedInDatabase = 10;
+        counters.reconcile();
+
+        // The booking commits after the reconcile's snapshot was taken, so none of its counts include it
+        when(patientRepository.countGroupedByStatus()).thenAnswer(invocation -> {
+            counters.onAppointmentChanged(booking());
+            return List.<Object[]>of(new Object[]{"Inpatient", 3L});
+        });
+        counters.reconcile();
+
+        assertEquals(11, counters.snapshot().totalAppointments());
+        assertEquals(11, counters.snapshot().appointments(BookingStatus.BOOKED));
+    }
+
+    @Test
+    void bookingsDuringTheFirstReconcileAreKept() {
+        bookedInDatabase = 10;
+        when(appointmentRepository.countGroupedByStatus()).thenAnswer(invocation -> {
+            List<Object[]> rows = List.<Object[]>of(new Object[]{BookingStatus.BOOKED, bookedInDatabase});
+            counters.onAppointmentChanged(booking());
+            return rows;
+        });
+
+        assertEquals(11, counters.snapshot().totalAppointments());
+        assertEquals(2, counters.snapshot().activeDoctors());
+        assertEquals(3, counters.snapshot().inpatients());
+    }
+
+    private static AppointmentChangedEvent booking() {
+        return new AppointmentChangedEvent(1L, 1, 1L, LocalDateTime.now(), null, BookingStatus.BOOKED);
+    }
+}
@@ -0,0 +1,94 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.model.Department;
+import com.mamadou.hospital_management_system.model.Patient;
+import com.mamadou.hospital_management_system.repository.DepartmentRepository;
+import com.mamadou.hospital_management_system.repository.PatientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class DashboardServiceQueryCountTest {
+
+    private static final int EXTRA_ROWS = 25;
+    private static final int TIMED_LOADS = 5;
+    // A fixed handful of grouped queries; best of five measured about 30 ms locally against Postgres
+    private static final long MAX_LOAD_MILLIS = 200;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private SingleFlightCache singleFlightCache;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void dashboardStatementCountDoesNotGrowWithData() {
+        long before = statementsForOneLoad();
+
+        List<Department> departments = new ArrayList<>();
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < EXTRA_ROWS; i++) {
+            Department department = new Department();
+            department.setName("Query Count Ward " + i);
+            departments.add(department);
+            Patient patient = new Patient();
+            patient.setGender("Female");
+            patient.setBloodGroup("O+");
+            patient.setStatus(i % 2 == 0 ? "Inpatient" : "Outpatient");
+            patients.add(patient);
+        }
+        departmentRepository.saveAll(departments);
+        patientRepository.saveAll(patients);
+        try {
+            long after = statementsForOneLoad();
+
+            assertTrue(before > 0);
+            assertEquals(before, after, "dashboard statements grew from " + before + " to " + after);
+            long millis = fastestUncachedLoadMillis();
+            assertTrue(millis < MAX_LOAD_MILLIS, "uncached dashboard load took " + millis + " ms");
+        } finally {
+            patientRepository.deleteAll(patients);
+            departmentRepository.deleteAll(departments);
+        }
+    }
+
+    // Best of a few runs, so a single GC pause or cold connection does not decide the result
+    private long fastestUncachedLoadMillis() {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < TIMED_LOADS; i++) {
+            singleFlightCache.invalidateAll();
+            long start = System.nanoTime();
+            dashboardService.getDashboardData();
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(fastest);
+    }
+
+    private long statementsForOneLoad() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        singleFlightCache.invalidateAll();
+        statistics.clear();
+        dashboardService.getDashboardData();
+        return statistics.getPrepareStatementCount();
+    }
+}
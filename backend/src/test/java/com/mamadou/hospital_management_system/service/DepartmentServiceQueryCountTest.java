@@ -0,0 +1,41 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.DepartmentDetailResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class DepartmentServiceQueryCountTest {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private SingleFlightCache singleFlightCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void departmentListLoadsInTwoStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        singleFlightCache.invalidateAll();
+        statistics.clear();
+
+        List<DepartmentDetailResponse> departments = departmentService.findAllDepartments();
+
+        assertFalse(departments.isEmpty());
+        assertTrue(departments.stream().allMatch(d -> d.doctorCount() == d.doctors().size()));
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "expected at most 2 statements but was " + statistics.getPrepareStatementCount());
+    }
+}
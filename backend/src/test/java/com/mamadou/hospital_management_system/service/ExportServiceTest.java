@@ -0,0 +1,104 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.enums.ExportFormat;
+import com.mamadou.hospital_management_system.model.Appointment;
+import com.mamadou.hospital_management_system.repository.AppointmentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ExportServiceTest {
+
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void streamsAppointmentsThroughTheCursorWithoutLoadingEntities() throws IOException {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Appointment> appointments = new ArrayList<>();
+            LocalDateTime start = LocalDateTime.of(2030, 1, 1, 8, 0);
+            for (int i = 0; i < ROWS; i++) {
+                Appointment appointment = new Appointment();
+                appointment.setStatus(BookingStatus.BOOKED);
+                appointment.setVisitType("Consultation");
+                appointment.setReason("Export test " + i);
+                appointment.setAppointmentDate(start.plusMinutes(15L * i));
+                appointments.add(appointment);
+            }
+            return appointmentRepository.saveAll(appointments).stream().map(Appointment::getId).toList();
+        });
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        try {
+            // Sampled on every chunk the writer flushes, from inside the export's own transaction
+            SamplingOutputStream out = new SamplingOutputStream(
+                    () -> entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+            exportService.exportAppointments(ExportFormat.NDJSON).writeTo(out);
+
+            assertEquals(appointmentRepository.count(), out.lines);
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals(0, out.maxManagedEntities, "rows were attached to the persistence context");
+            assertTrue(out.writes > 10, "expected the body in chunks while rows stream, got " + out.writes + " writes");
+        } finally {
+            appointmentRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    private static final class SamplingOutputStream extends OutputStream {
+        private final IntSupplier managedEntities;
+        private long lines;
+        private int writes;
+        private int maxManagedEntities;
+
+        SamplingOutputStream(IntSupplier managedEntities) {
+            this.managedEntities = managedEntities;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes++;
+            maxManagedEntities = Math.max(maxManagedEntities, managedEntities.getAsInt());
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') lines++;
+            }
+        }
+    }
+}
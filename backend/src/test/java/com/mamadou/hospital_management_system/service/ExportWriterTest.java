@@ -0,0 +1,125 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.enums.BookingStatus;
+import com.mamadou.hospital_management_system.enums.ExportFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportWriterTest {
+
+    private static final int ROWS = 1_000_000;
+    // The million rows come to well over 50 MB of output, so a writer that kept rows or output around
+    // would run out of this heap long before the end
+    private static final String MAX_HEAP = "-Xmx16m";
+    private static final String[] COLUMNS = {"id", "name", "status", "appointmentDate", "reason"};
+
+    @Test
+    void writesCsvAndNdjson() throws IOException {
+        List<Object[]> rows = List.of(
+                new Object[]{1L, "Awa, Ceesay", BookingStatus.CONFIRMED, LocalDateTime.of(2025, 3, 1, 9, 30), "Said \"ouch\"\nthen left"},
+                new Object[]{2L, "Lamin Bah", null, null, null});
+
+        assertEquals("id,name,status,appointmentDate,reason\r\n" +
+                        "1,\"Awa, Ceesay\",CONFIRMED,2025-03-01T09:30,\"Said \"\"ouch\"\"\nthen left\"\r\n" +
+                        "2,Lamin Bah,,,\r\n",
+                write(ExportFormat.CSV, rows));
+        assertEquals("{\"id\":1,\"name\":\"Awa, Ceesay\",\"status\":\"CONFIRMED\",\"appointmentDate\":\"2025-03-01T09:30\"," +
+                        "\"reason\":\"Said \\\"ouch\\\"\\nthen left\"}\n" +
+                        "{\"id\":2,\"name\":\"Lamin Bah\",\"status\":null,\"appointmentDate\":null,\"reason\":null}\n",
+                write(ExportFormat.NDJSON, rows));
+    }
+
+    @Test
+    void prefixesCsvCellsThatSpreadsheetsWouldEvaluate() throws IOException {
+        List<Object[]> rows = List.of(
+                new Object[]{-3L, "=HYPERLINK(\"http://x\")", null, null, "@SUM(A1)"},
+                new Object[]{4L, "+220 123", null, null, "-flu"});
+
+        assertEquals("id,name,status,appointmentDate,reason\r\n" +
+                        "-3,\"'=HYPERLINK(\"\"http://x\"\")\",,,'@SUM(A1)\r\n" +
+                        "4,'+220 123,,,'-flu\r\n",
+                write(ExportFormat.CSV, rows));
+        assertTrue(write(ExportFormat.NDJSON, rows).contains("\"name\":\"=HYPERLINK("));
+    }
+
+    // Runs in a separate JVM with a small fixed heap, so the bound holds without forcing collections here
+    @Test
+    void exportsAMillionRowsInASmallHeap() throws Exception {
+        for (ExportFormat format : ExportFormat.values()) {
+            Process process = new ProcessBuilder(
+                    new File(System.getProperty("java.home"), "bin/java").getPath(), MAX_HEAP,
+                    "-cp", System.getProperty("java.class.path"), MillionRows.class.getName(), format.name())
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            assertTrue(process.waitFor(2, TimeUnit.MINUTES), format + " export did not finish");
+
+            assertEquals(0, process.exitValue(), format + " export failed in " + MAX_HEAP + ": " + output);
+            String[] counts = output.split(" ");
+            assertEquals(ROWS, Long.parseLong(counts[0]));
+            assertTrue(Long.parseLong(counts[1]) > (long) ROWS * 40, format + " wrote only " + counts[1] + " bytes");
+        }
+    }
+
+    // Entry point for the forked JVM: writes ROWS synthetic rows and prints "<rows> <bytes>"
+    static final class MillionRows {
+        public static void main(String[] args) throws IOException {
+            CountingOutputStream out = new CountingOutputStream();
+            long written = ExportWriter.write(ExportFormat.valueOf(args[0]), COLUMNS, syntheticRows(), out);
+            System.out.println(written + " " + out.count);
+        }
+    }
+
+    // Rows are made on demand like a database cursor hands them out
+    private static Iterator<Object[]> syntheticRows() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        BookingStatus[] statuses = BookingStatus.values();
+        return new Iterator<>() {
+            private long id;
+
+            @Override
+            public boolean hasNext() {
+                return id < ROWS;
+            }
+
+            @Override
+            public Object[] next() {
+                id++;
+                return new Object[]{id, "Patient " + id, statuses[(int) (id % statuses.length)],
+                        start.plusMinutes(id * 15), id % 3 == 0 ? "Follow-up, \"routine\"" : "Consultation"};
+            }
+        };
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    private static String write(ExportFormat format, List<Object[]> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportWriter.write(format, COLUMNS, rows.iterator(), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mamadou.hospital_management_system.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Latency checks for the in-memory indexes at production-like sizes. Timing bounds are too noisy for every
+// build, so these only run on request: mvn test -Dtest=IndexBenchmarkTest -Dbenchmarks=true
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class IndexBenchmarkTest {
+
+    private static final String[] FIRST = {"Awa", "Lamin", "Fatou", "Modou", "Isatou", "Ebrima", "Binta", "Alieu",
+            "Mariama", "Ousman", "Kaddy", "Sainabou", "Momodou", "Haddy", "Musa", "Jainaba"};
+    private static final String[] LAST = {"Bah", "Jallow", "Ceesay", "Sowe", "Touray", "Drammeh", "Camara", "Sarr",
+            "Njie", "Jammeh", "Faal", "Darboe", "Sanneh", "Manneh", "Jobe", "Saidy"};
+
+    @Test
+    void availabilityQueriesStaySubMillisecondWithAYearOfBookings() {
+        int doctors = 2000;
+        int departments = 20;
+        AvailabilityIndex index = new AvailabilityIndex();
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2026, 1, 5);
+        long appointmentId = 0;
+        for (int id = 1; id <= doctors; id++) {
+            Map<DayOfWeek, List<AvailabilityIndex.Interval>> week = new EnumMap<>(DayOfWeek.class);
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (day.getValue() <= 5) {
+                    week.put(day, List.of(
+                            new AvailabilityIndex.Interval(LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                            new AvailabilityIndex.Interval(LocalTime.of(13, 0), LocalTime.of(17, 0))));
+                }
+            }
+            index.putDoctor(new AvailabilityIndex.DoctorEntry(id, "Doctor " + id, "Dept " + (id % departments),
+                    "Specialty " + (id % 7), true, week));
+
+            // A year of weekday bookings, about a quarter of each day booked
+            for (int d = 0; d < 365; d++) {
+                LocalDate date = start.plusDays(d);
+                if (date.getDayOfWeek().getValue() > 5) continue;
+                for (int slot = 0; slot < 16; slot++) {
+                    if (random.nextInt(4) == 0) {
+                        int minute = slot < 8 ? 8 * 60 + slot * 30 : 13 * 60 + (slot - 8) * 30;
+                        index.book(id, ++appointmentId, date.atStartOfDay().plusMinutes(minute));
+                    }
+                }
+            }
+        }
+
+        int[] hits = new int[1];
+        double averageMillis = cpuMillisPerCall(5000, 10_000, () -> {
+            LocalDate date = start.plusDays(random.nextInt(365));
+            LocalTime from = LocalTime.of(8 + random.nextInt(8), 0);
+            hits[0] += index.find("Dept " + random.nextInt(departments), null, date, from, from.plusHours(2)).size();
+        });
+
+        assertTrue(hits[0] > 0);
+        assertTrue(averageMillis < 1.0, "average availability query took " + averageMillis + " ms");
+    }
+
+    @Test
+    void patientSearchesStayInTheLowMillisecondsOverAHundredThousandPatients() {
+        String[] towns = {"Banjul", "Serekunda", "Brikama", "Bakau", "Farafenni", "Lamin"};
+        PatientSearchIndex index = new PatientSearchIndex();
+        Random random = new Random(11);
+        for (long id = 1; id <= 100_000; id++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last = LAST[random.nextInt(LAST.length)];
+            index.put(new PatientSearchIndex.Document(id, first, last,
+                    first.toLowerCase() + "." + last.toLowerCase() + id + "@mail.gm",
+                    "+220 " + (3_000_000 + random.nextInt(7_000_000)), towns[random.nextInt(towns.length)], "Outpatient"));
+        }
+
+        List<String> queries = List.of("mariama sanneh", "sainab", "Jamme", "Darbo Kady", "7712", "ousman.jobe4",
+                "Farafeni", "haddy j", "Momodu Saidy");
+        int[] next = new int[1];
+        double averageMillis = cpuMillisPerCall(queries.size() * 5, queries.size() * 5,
+                () -> index.search(queries.get(next[0]++ % queries.size()), true, 0, 20));
+
+        assertTrue(index.search("Momodu Saidy", true, 0, 20).total() > 0);
+        assertTrue(averageMillis < 50.0, "average patient search took " + averageMillis + " ms");
+    }
+
+    // Average CPU time of this thread per call after a warm-up, so other threads in the JVM don't count
+    private static double cpuMillisPerCall(int warmUp, int calls, Runnable call) {
+        for (int i = 0; i < warmUp; i++) call.run();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long begin = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < calls; i++) call.run();
+        return (threads.getCurrentThreadCpuTime() - begin) / 1_000_000.0 / calls;
+    }
+}
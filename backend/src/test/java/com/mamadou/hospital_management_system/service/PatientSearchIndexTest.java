@@ -0,0 +1,44 @@
+package com.mamadou.hospital_management_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientSearchIndexTest {
+
+    @Test
+    void matchesPrefixesTyposAndPhoneDigitsAndFollowsUpdates() {
+        PatientSearchIndex index = new PatientSearchIndex();
+        index.put(patient(1, "Fatou", "Jallow", "fatou.jallow@mail.gm", "+220 771-2345", "Serekunda"));
+        index.put(patient(2, "Fatoumata", "Ceesay", "fceesay@mail.gm", "220 990 1111", "Banjul"));
+        index.put(patient(3, "Lamin", "Touray", "lamin@mail.gm", "3334444", "Fatoto"));
+
+        // Equal scores fall back to last name
+        assertEquals(List.of(2L, 1L, 3L), ids(index.search("fato", false, 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("fatou jal", false, 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("Jalow", true, 0, 10)));
+        assertTrue(index.search("Jalow", false, 0, 10).hits().isEmpty());
+        assertEquals(List.of(1L), ids(index.search("771 2345", false, 0, 10)));
+
+        PatientSearchIndex.Page page = index.search("mail", false, 1, 2);
+        assertEquals(3, page.total());
+        assertEquals(1, page.hits().size());
+
+        index.put(patient(1, "Fatou", "Bah", "fatou.bah@mail.gm", "+220 771-2345", "Serekunda"));
+        assertTrue(index.search("jallow", true, 0, 10).hits().isEmpty());
+        index.remove(2);
+        assertEquals(List.of(1L, 3L), ids(index.search("fato", false, 0, 10)));
+    }
+
+    private static PatientSearchIndex.Document patient(long id, String first, String last, String email,
+                                                       String phone, String address) {
+        return new PatientSearchIndex.Document(id, first, last, email, phone, address, "Outpatient");
+    }
+
+    private static List<Long> ids(PatientSearchIndex.Page page) {
+        return page.hits().stream().map(h -> h.document().id()).toList();
+    }
+}
@@ -0,0 +1,44 @@
+package com.mamadou.hospital_management_system.service;
+
+import com.mamadou.hospital_management_system.dto.PatientDetailResponse;
+import com.mamadou.hospital_management_system.model.Patient;
+import com.mamadou.hospital_management_system.repository.PatientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PatientServiceQueryCountTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void patientDetailLoadsInBoundedNumberOfStatements() {
+        Patient patient = patientRepository.findAll().stream()
+                .filter(p -> p.getUser() != null)
+                .findFirst()
+                .orElseThrow();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PatientDetailResponse detail = patientService.getPatientById(patient.getId(), 0, 0, PatientService.DEFAULT_DETAIL_PAGE_SIZE);
+
+        assertEquals(patient.getId(), detail.id());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "expected at most 3 statements but was " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,85 @@
+package com.mamadou.hospital_management_system.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.application.single-flight.ttl-millis=60000"
+})
+class ReadCoalescingLoadTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private SingleFlightCache singleFlightCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void concurrentBurstIssuesNoMoreStatementsThanOneCall() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        singleFlightCache.invalidateAll();
+        statistics.clear();
+        callAll();
+        long singleCall = statistics.getPrepareStatementCount();
+        assertTrue(singleCall > 0);
+
+        singleFlightCache.invalidateAll();
+        statistics.clear();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    callAll();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long burst = statistics.getPrepareStatementCount();
+        assertTrue(burst <= singleCall,
+                THREADS + " concurrent callers issued " + burst + " statements, one caller issued " + singleCall);
+    }
+
+    private void callAll() {
+        dashboardService.getDashboardData();
+        patientService.getPatientStats();
+        departmentService.findAllDepartments();
+    }
+}